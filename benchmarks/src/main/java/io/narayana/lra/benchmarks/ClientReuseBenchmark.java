@@ -0,0 +1,71 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.benchmarks;
+
+import io.narayana.lra.client.internal.CoordinatorClientPool;
+import io.narayana.lra.client.internal.NarayanaLRAClient;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Start, query and close LRAs through the LRA client against a coordinator running in the benchmark
+ * JVM. Each operation makes three requests, all of them through one pooled client for the coordinator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-DObjectStoreEnvironmentBean.objectStoreDir=target/benchmark-store")
+public class ClientReuseBenchmark {
+    private EmbeddedCoordinator coordinator;
+    private NarayanaLRAClient lraClient;
+    private long created;
+
+    @Setup
+    public void setup() {
+        coordinator = new EmbeddedCoordinator();
+        lraClient = new NarayanaLRAClient(coordinator.getUrl());
+        lraClient.closeLRA(lraClient.startLRA("ClientReuseBenchmark")); // make sure the client is created
+        created = CoordinatorClientPool.getCreatedClientCount();
+    }
+
+    @TearDown
+    public void tearDown() {
+        try {
+            if (CoordinatorClientPool.getCreatedClientCount() != created) {
+                throw new IllegalStateException(String.format("%d clients were created for one coordinator",
+                        CoordinatorClientPool.getCreatedClientCount() - created + 1));
+            }
+        } finally {
+            lraClient.close();
+            coordinator.stop();
+        }
+    }
+
+    @Benchmark
+    public LRAStatus startStatusClose() {
+        URI lraId = lraClient.startLRA("ClientReuseBenchmark");
+        LRAStatus status = lraClient.getStatus(lraId);
+
+        lraClient.closeLRA(lraId);
+
+        return status;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.benchmarks;
+
+import io.narayana.lra.coordinator.api.Coordinator;
+import jakarta.ws.rs.ApplicationPath;
+import jakarta.ws.rs.core.Application;
+import org.jboss.resteasy.plugins.server.undertow.UndertowJaxrsServer;
+
+import java.util.Set;
+
+import static io.narayana.lra.LRAConstants.COORDINATOR_PATH_NAME;
+
+/**
+ * Runs the coordinator on Undertow in the benchmark JVM for the benchmarks that go through the REST API.
+ */
+class EmbeddedCoordinator {
+    private static final int PORT = 8081;
+
+    @ApplicationPath("/")
+    public static class LRACoordinator extends Application {
+        @Override
+        public Set<Class<?>> getClasses() {
+            return Set.of(Coordinator.class);
+        }
+    }
+
+    private final UndertowJaxrsServer server;
+
+    EmbeddedCoordinator() {
+        server = new UndertowJaxrsServer().setPort(PORT).start();
+        server.deploy(LRACoordinator.class);
+    }
+
+    String getUrl() {
+        return String.format("http://localhost:%d/%s", PORT, COORDINATOR_PATH_NAME);
+    }
+
+    void stop() {
+        server.stop();
+    }
+}
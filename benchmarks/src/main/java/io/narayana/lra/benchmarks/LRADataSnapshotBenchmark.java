@@ -0,0 +1,73 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.benchmarks;
+
+import io.narayana.lra.LRAData;
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.coordinator.domain.service.LRAService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read the data of an LRA while it is unchanged and while one thread keeps renewing its time limit.
+ * Readers share one snapshot until the LRA changes so the read rate should only drop while it is renewed.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-DObjectStoreEnvironmentBean.objectStoreDir=target/benchmark-store")
+public class LRADataSnapshotBenchmark {
+    private LRAService service;
+    private LongRunningAction lra;
+    private long renewals;
+
+    @Setup
+    public void setup() {
+        service = new LRAService();
+        lra = service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.endLRA(lra.getId(), false, false);
+    }
+
+    @Benchmark
+    @Group("unchanged")
+    @GroupThreads(3)
+    public LRAData readUnchanged() {
+        return service.getLRA(lra.getId());
+    }
+
+    @Benchmark
+    @Group("renewed")
+    @GroupThreads(3)
+    public LRAData readRenewed() {
+        return service.getLRA(lra.getId());
+    }
+
+    @Benchmark
+    @Group("renewed")
+    @GroupThreads(1)
+    public int renew() {
+        return service.renewTimeLimit(lra.getId(), TimeUnit.HOURS.toMillis(1) + renewals++ % 1000);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.benchmarks;
+
+import io.narayana.lra.coordinator.domain.service.LRAService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lock and unlock distinct LRAs from one, four and all available threads. Callers working on different
+ * LRAs do not share a monitor so the number of lock operations per second should grow with the threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LockBenchmark {
+    private static final String LRA_BASE = "http://localhost:8080/lra-coordinator/";
+
+    private final AtomicInteger callers = new AtomicInteger();
+    private LRAService service;
+
+    @State(Scope.Thread)
+    public static class Caller {
+        private String prefix;
+        private long next;
+
+        @Setup
+        public void setup(LockBenchmark benchmark) {
+            prefix = LRA_BASE + benchmark.callers.getAndIncrement() + "_";
+        }
+
+        URI nextId() {
+            return URI.create(prefix + next++);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        service = new LRAService();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (service.getContendedLockCount() != 0 || service.getLockTableSize() != 0) {
+            throw new IllegalStateException(String.format("%d contended locks and %d locks left in the table",
+                    service.getContendedLockCount(), service.getLockTableSize()));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void lockUnlock1(Caller caller) {
+        lockUnlock(caller.nextId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void lockUnlock4(Caller caller) {
+        lockUnlock(caller.nextId());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void lockUnlockMax(Caller caller) {
+        lockUnlock(caller.nextId());
+    }
+
+    private void lockUnlock(URI lraId) {
+        ReentrantLock lock = service.lockTransaction(lraId);
+
+        try {
+            service.tryLockTransaction(lraId).unlock(); // reentrant
+        } finally {
+            lock.unlock();
+        }
+
+        service.remove(lraId);
+    }
+}
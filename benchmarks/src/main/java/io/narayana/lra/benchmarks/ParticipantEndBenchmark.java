@@ -0,0 +1,112 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import io.narayana.lra.LRAParticipantEnlistment;
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.coordinator.domain.service.LRAService;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Close LRAs whose participants are served by a stub participant server that takes a fixed time to answer.
+ * With a termination parallelism above one the requests to the participants overlap, and since no thread
+ * waits for a participant while its request is in progress the few invoker threads are enough for all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-DObjectStoreEnvironmentBean.objectStoreDir=target/benchmark-store")
+public class ParticipantEndBenchmark {
+    private static final String RECOVERY_BASE = "http://localhost:8080/lra-coordinator/recovery";
+
+    @Param({"50"})
+    private int participants;
+
+    // how long (in milliseconds) the stub participant takes to complete
+    @Param({"10"})
+    private int delay;
+
+    @Param({"1", "10", "50"})
+    private int parallelism;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private LRAService service;
+    private List<String> links;
+
+    @Setup
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.createContext("/participant", exchange -> {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        String base = "http://localhost:" + server.getAddress().getPort() + "/participant/";
+
+        service = new LRAService();
+        links = new ArrayList<>(participants);
+
+        for (int i = 0; i < participants; i++) {
+            links.add(String.format("<%s%d/complete>; rel=\"complete\", <%s%d/compensate>; rel=\"compensate\"",
+                    base, i, base, i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public LRAStatus close() {
+        LongRunningAction lra = service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L);
+        List<LRAParticipantEnlistment> batch = new ArrayList<>(participants);
+
+        links.forEach(link -> batch.add(new LRAParticipantEnlistment(link, null)));
+        lra.setTerminationParallelism(parallelism);
+
+        if (service.joinLRAs(lra.getId(), 0L, batch, RECOVERY_BASE, null) != 200) {
+            throw new IllegalStateException("the participants could not join the LRA");
+        }
+
+        return service.endLRA(lra.getId(), false, false).getStatus();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.benchmarks;
+
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.coordinator.domain.service.LRAService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URISyntaxException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolve participant recovery ids while the number of LRAs grows. The lookup goes through a reverse
+ * index so the time per lookup should not depend on the number of LRAs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParticipantLookupBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    private int lras;
+
+    private LRAService service;
+    private String[] recoveryIds;
+
+    @Setup
+    public void setup() throws URISyntaxException {
+        service = new LRAService();
+        recoveryIds = new String[lras];
+
+        for (int i = 0; i < lras; i++) {
+            LongRunningAction lra = new LongRunningAction(service, "http://localhost:8080/lra-coordinator", null, "client");
+            String uid = lra.get_uid().fileStringForm();
+
+            service.addTransaction(lra);
+            service.updateRecoveryURI(lra.getId(), "http://localhost:8081/participant/" + uid,
+                    "http://localhost:8080/lra-coordinator/recovery/" + uid + "/1", false);
+            service.updateRecoveryURI(lra.getId(), "http://localhost:8081/participant/" + uid + "/2",
+                    recoveryIds[i] = "http://localhost:8080/lra-coordinator/recovery/" + uid + "/2", false);
+        }
+    }
+
+    @Benchmark
+    public String lookup() {
+        return service.getParticipant(recoveryIds[ThreadLocalRandom.current().nextInt(lras)]);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.benchmarks;
+
+import com.arjuna.ats.arjuna.ObjectType;
+import com.arjuna.ats.arjuna.exceptions.ObjectStoreException;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.coordinator.domain.service.LRAService;
+import io.narayana.lra.logging.LRALogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure how the saved state of an LRA grows with its participants: the time to save an LRA with a
+ * given number of participants and the time to grow an LRA to that size, where each join writes the
+ * LRA. The size of the saved state is logged once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-DObjectStoreEnvironmentBean.objectStoreDir=target/benchmark-store")
+public class ParticipantStateBenchmark {
+    private static final String RECOVERY_BASE = "http://localhost:8080/lra-coordinator/recovery";
+
+    @State(Scope.Benchmark)
+    public static class Participants {
+        @Param({"1", "10", "100", "500"})
+        int participants;
+
+        LRAService service;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            service = new LRAService();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SavedLRA {
+        private LRAService service;
+        private LongRunningAction lra;
+
+        @Setup(Level.Trial)
+        public void setup(Participants state) throws UnsupportedEncodingException {
+            service = state.service;
+            lra = start(service);
+            join(lra, state.participants);
+
+            OutputObjectState os = new OutputObjectState();
+
+            lra.save_state(os, ObjectType.ANDPERSISTENT);
+            LRALogger.logger.infof("ParticipantStateBenchmark: %d participants save %d bytes",
+                    state.participants, os.length());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws ObjectStoreException {
+            finish(service, lra);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EmptyLRA {
+        private LRAService service;
+        private LongRunningAction lra;
+
+        @Setup(Level.Iteration)
+        public void setup(Participants state) {
+            service = state.service;
+            lra = start(service);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws ObjectStoreException {
+            finish(service, lra);
+        }
+    }
+
+    @Benchmark
+    public OutputObjectState save(SavedLRA saved) {
+        OutputObjectState os = new OutputObjectState();
+
+        if (!saved.lra.save_state(os, ObjectType.ANDPERSISTENT)) {
+            throw new IllegalStateException("the LRA state did not save");
+        }
+
+        return os;
+    }
+
+    /*
+     * single shot: a fresh LRA is grown to the requested size in each iteration
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public void join(Participants state, EmptyLRA empty) throws UnsupportedEncodingException {
+        join(empty.lra, state.participants);
+    }
+
+    private static LongRunningAction start(LRAService service) {
+        return service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L);
+    }
+
+    private static void join(LongRunningAction lra, int participants) throws UnsupportedEncodingException {
+        for (int i = 0; i < participants; i++) {
+            lra.enlistParticipant(lra.getId(),
+                    String.format("<http://localhost:8081/participant%d/compensate>; rel=\"compensate\"", i),
+                    RECOVERY_BASE, 0L, "data" + i, null);
+        }
+    }
+
+    private static void finish(LRAService service, LongRunningAction lra) throws ObjectStoreException {
+        service.remove(lra.getId());
+        StoreManager.getRecoveryStore().remove_committed(lra.get_uid(), LongRunningAction.getType());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.benchmarks;
+
+import io.narayana.lra.LRAStartRequest;
+import io.narayana.lra.client.internal.NarayanaLRAClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare starting a number of LRAs with one batch request against starting them one request at a time.
+ * The LRAs are closed after each iteration, outside the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-DObjectStoreEnvironmentBean.objectStoreDir=target/benchmark-store")
+public class StartBatchBenchmark {
+    @Param({"10", "100"})
+    private int count;
+
+    private EmbeddedCoordinator coordinator;
+    private NarayanaLRAClient lraClient;
+    private List<LRAStartRequest> requests;
+    private final List<URI> started = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        coordinator = new EmbeddedCoordinator();
+        lraClient = new NarayanaLRAClient(coordinator.getUrl());
+        requests = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            requests.add(new LRAStartRequest("StartBatchBenchmark" + i, 0L, null));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStarted() {
+        started.forEach(lraClient::closeLRA);
+        started.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        lraClient.close();
+        coordinator.stop();
+    }
+
+    @Benchmark
+    public void batch() {
+        started.addAll(lraClient.startLRAs(requests));
+    }
+
+    @Benchmark
+    public void singles() {
+        for (LRAStartRequest request : requests) {
+            // not associated with the calling thread so the next LRA is not nested in this one
+            started.add(lraClient.startLRAAsync(null, request.getClientId(), 0L, ChronoUnit.SECONDS)
+                    .toCompletableFuture().join());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.benchmarks;
+
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.coordinator.domain.service.LRAService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Start and close LRAs from one, four and all available threads. Starting an LRA writes it to the
+ * object store so the rates depend on the store, which is kept under target.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-DObjectStoreEnvironmentBean.objectStoreDir=target/benchmark-store")
+public class StartBenchmark {
+    private LRAService service;
+
+    @Setup
+    public void setup() {
+        service = new LRAService();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void startClose1() {
+        startClose();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void startClose4() {
+        startClose();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void startCloseMax() {
+        startClose();
+    }
+
+    private void startClose() {
+        LongRunningAction lra = service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L);
+
+        service.endLRA(lra.getId(), false, false);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.client.internal;
+
+import io.narayana.lra.logging.LRALogger;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.WebTarget;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WARNING: CoordinatorClientPool is an internal utility class and is subject to change.
+ * <p>
+ * Holds one long-lived JAX-RS client per coordinator URL, shared by all {@link NarayanaLRAClient} instances,
+ * so that start, join, end, leave and status requests reuse pooled connections to the coordinator instead of
+ * opening a new connection for every request. When the JAX-RS implementation is RESTEasy the size of the
+ * connection pool is configurable. A client that has not been used for
+ * {@code lra.internal.client.idle.timeout} seconds is closed the next time the pool is used.
+ */
+public final class CoordinatorClientPool {
+    // the maximum number of pooled connections to a coordinator
+    private static final int POOL_SIZE = Integer.getInteger("lra.internal.client.pool.size", 50);
+    // how long (in seconds) an unused client, or a pooled connection, is kept open
+    private static final long IDLE_TIMEOUT = Long.getLong("lra.internal.client.idle.timeout", 60);
+
+    private static final Map<URI, PooledClient> clients = new ConcurrentHashMap<>();
+    private static final AtomicLong lastEviction = new AtomicLong(System.nanoTime());
+    private static final LongAdder createdClients = new LongAdder();
+    private static final LongAdder evictedClients = new LongAdder();
+
+    private CoordinatorClientPool() {
+    }
+
+    /**
+     * Obtain the shared client for a coordinator. The client must be released, by closing it,
+     * when the request has finished.
+     *
+     * @param coordinatorUrl the coordinator that the client will talk to
+     * @return the shared client
+     */
+    static PooledClient acquire(URI coordinatorUrl) {
+        evictIdleClients();
+
+        // compute is atomic for a key so a client cannot be evicted while it is being acquired
+        return clients.compute(coordinatorUrl, (url, client) -> {
+            if (client == null) {
+                client = new PooledClient(url, newClient());
+                createdClients.increment();
+            }
+
+            client.users.incrementAndGet();
+
+            return client;
+        });
+    }
+
+    private static Client newClient() {
+        ClientBuilder builder = ClientBuilder.newBuilder();
+
+        try {
+            if (builder instanceof ResteasyClientBuilder) {
+                ((ResteasyClientBuilder) builder)
+                        .connectionPoolSize(POOL_SIZE)
+                        .maxPooledPerRoute(POOL_SIZE)
+                        .connectionTTL(IDLE_TIMEOUT, TimeUnit.SECONDS);
+            }
+        } catch (LinkageError e) {
+            // a different JAX-RS implementation, use its default connection management
+            if (LRALogger.logger.isDebugEnabled()) {
+                LRALogger.logger.debugf("CoordinatorClientPool: cannot configure the connection pool: %s", e.getMessage());
+            }
+        }
+
+        return builder.build();
+    }
+
+    // close the clients that nobody is using and that have been idle for longer than the idle timeout
+    private static void evictIdleClients() {
+        long now = System.nanoTime();
+        long last = lastEviction.get();
+        long idleNanos = TimeUnit.SECONDS.toNanos(IDLE_TIMEOUT);
+
+        if (now - last < idleNanos || !lastEviction.compareAndSet(last, now)) {
+            return; // checked recently or another thread is checking
+        }
+
+        List<PooledClient> idle = new ArrayList<>();
+
+        for (URI url : clients.keySet()) {
+            clients.computeIfPresent(url, (u, client) -> {
+                if (client.users.get() == 0 && now - client.lastUsed > idleNanos) {
+                    idle.add(client);
+                    return null;
+                }
+
+                return client;
+            });
+        }
+
+        idle.forEach(PooledClient::closeClient);
+        evictedClients.add(idle.size());
+    }
+
+    /**
+     * Close every pooled client, for example when the application that uses the LRA client is undeployed.
+     * New clients are created if requests are made afterwards.
+     */
+    public static void closeAll() {
+        for (URI url : clients.keySet()) {
+            PooledClient client = clients.remove(url);
+
+            if (client != null) {
+                client.closeClient();
+            }
+        }
+    }
+
+    /**
+     * @return the number of coordinators that currently have an open client
+     */
+    public static int getPooledClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * @return the number of clients that have been created
+     */
+    public static long getCreatedClientCount() {
+        return createdClients.sum();
+    }
+
+    /**
+     * @return the number of clients that were closed because they were idle
+     */
+    public static long getEvictedClientCount() {
+        return evictedClients.sum();
+    }
+
+    /**
+     * The shared client of a coordinator. Closing it releases it back to the pool
+     * rather than closing the underlying connections.
+     */
+    static final class PooledClient implements Closeable {
+        private final URI coordinatorUrl;
+        private final Client client;
+        private final AtomicInteger users = new AtomicInteger();
+        private volatile long lastUsed = System.nanoTime();
+
+        private PooledClient(URI coordinatorUrl, Client client) {
+            this.coordinatorUrl = coordinatorUrl;
+            this.client = client;
+        }
+
+        WebTarget target(URI uri) {
+            return client.target(uri);
+        }
+
+        @Override
+        public void close() {
+            lastUsed = System.nanoTime(); // update before releasing so that eviction sees the latest use
+            users.decrementAndGet();
+        }
+
+        private void closeClient() {
+            try {
+                client.close();
+            } catch (RuntimeException e) {
+                if (LRALogger.logger.isDebugEnabled()) {
+                    LRALogger.logger.debugf("CoordinatorClientPool: closing the client of %s failed: %s",
+                            coordinatorUrl, e.getMessage());
+                }
+            }
+        }
+    }
+}
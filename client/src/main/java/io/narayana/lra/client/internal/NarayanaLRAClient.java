@@ -8,6 +8,8 @@ package io.narayana.lra.client.internal;
 import io.narayana.lra.Current;
 import io.narayana.lra.LRAConstants;
 import io.narayana.lra.LRAData;
+import io.narayana.lra.LRAParticipantEnlistment;
+import io.narayana.lra.LRAStartRequest;
 import io.narayana.lra.logging.LRALogger;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.ws.rs.DELETE;
@@ -17,8 +19,6 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.WebApplicationException;
-import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.GenericType;
@@ -49,13 +49,16 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import static io.narayana.lra.LRAConstants.AFTER;
 import static io.narayana.lra.LRAConstants.CLIENT_ID_PARAM_NAME;
@@ -68,7 +71,9 @@ import static io.narayana.lra.LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME;
 import static io.narayana.lra.LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME;
 import static io.narayana.lra.LRAConstants.NARAYANA_LRA_PARTICIPANT_LINK_HEADER_NAME;
 import static io.narayana.lra.LRAConstants.PARENT_LRA_PARAM_NAME;
+import static io.narayana.lra.LRAConstants.PREFER_HEADER;
 import static io.narayana.lra.LRAConstants.RECOVERY_COORDINATOR_PATH_NAME;
+import static io.narayana.lra.LRAConstants.RESPOND_ASYNC;
 import static io.narayana.lra.LRAConstants.STATUS;
 import static io.narayana.lra.LRAConstants.TIMELIMIT_PARAM_NAME;
 
@@ -100,10 +105,12 @@ public class NarayanaLRAClient implements Closeable {
 
     // LRA Coordinator API
     private static final String START_PATH = "/start";
+    private static final String START_BATCH_PATH = "/start/batch";
     private static final String LEAVE_PATH = "/%s/remove";
     private static final String STATUS_PATH = "/%s/status";
     private static final String CLOSE_PATH = "/%s/close";
     private static final String CANCEL_PATH = "/%s/cancel";
+    private static final String PARTICIPANTS_PATH = "/%s/participants";
 
     private static final String LINK_TEXT = "Link";
 
@@ -194,30 +201,22 @@ public class NarayanaLRAClient implements Closeable {
     }
 
     public List<LRAData> getAllLRAs() {
-        Client client = null;
-        try {
-            client = getClient();
-            Response response = client.target(coordinatorUrl)
-                .request()
-                .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
-                .async()
-                .get()
-                .get(QUERY_TIMEOUT, TimeUnit.SECONDS);
-
-            if (response.getStatus() != OK.getStatusCode()) {
-                LRALogger.logger.debugf("Error getting all LRAs from the coordinator, response status: %d", response.getStatus());
-                throw new WebApplicationException(response);
-            }
+        URI coordinator = coordinatorUrl;
+
+        return await(send("getAllLRAs client request timed out, try again later", QUERY_TIMEOUT,
+                client -> client.target(coordinator)
+                        .request()
+                        .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
+                        .rx()
+                        .get(),
+                response -> {
+                    if (response.getStatus() != OK.getStatusCode()) {
+                        LRALogger.logger.debugf("Error getting all LRAs from the coordinator, response status: %d", response.getStatus());
+                        throw new WebApplicationException(response);
+                    }
 
-            return response.readEntity(new GenericType<List<LRAData>>() {});
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            throw new WebApplicationException("getAllLRAs client request timed out, try again later",
-                    Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
-        } finally {
-            if (client != null) {
-                client.close();
-            }
-        }
+                    return response.readEntity(new GenericType<List<LRAData>>() {});
+                }));
     }
 
     /**
@@ -274,9 +273,31 @@ public class NarayanaLRAClient implements Closeable {
      * @throws WebApplicationException  thrown when start of the LRA failed
      */
     public URI startLRA(URI parentLRA, String clientID, Long timeout, ChronoUnit unit, boolean verbose) throws WebApplicationException {
-        Client client = null;
-        Response response = null;
-        URI lra;
+        URI lra = await(startLRAAsync(parentLRA, clientID, timeout, unit, verbose));
+
+        Current.push(lra);
+
+        return lra;
+    }
+
+    /**
+     * Start an LRA without blocking the calling thread. Unlike {@link #startLRA(URI, String, Long, ChronoUnit)}
+     * the new LRA is not associated with the calling thread.
+     *
+     * @param parentLRA when the newly started LRA should be nested with this LRA parent, when null the newly started LRA is top-level
+     * @param clientID  client id determining the LRA
+     * @param timeout  timeout value, when timeout-ed the LRA will be compensated
+     * @param unit  timeout unit, when null seconds are used
+     * @return a stage that completes with the LRA id, or exceptionally with a {@link WebApplicationException}
+     * if the start of the LRA failed
+     */
+    public CompletionStage<URI> startLRAAsync(URI parentLRA, String clientID, Long timeout, ChronoUnit unit) {
+        return startLRAAsync(parentLRA, clientID, timeout, unit, true);
+    }
+
+    private CompletionStage<URI> startLRAAsync(URI parentLRA, String clientID, Long timeout, ChronoUnit unit,
+                                               boolean verbose) {
+        URI coordinator = coordinatorUrl;
 
         if (clientID == null) {
             clientID = "";
@@ -284,11 +305,8 @@ public class NarayanaLRAClient implements Closeable {
 
         if (timeout == null) {
             timeout = 0L;
-        } else if (timeout < 0) {
-            throwGenericLRAException(parentLRA, BAD_REQUEST.getStatusCode(),
-                    "Invalid timeout value: " + timeout, null);
-            return null;
         }
+
         if (unit == null) {
             unit = ChronoUnit.SECONDS;
         }
@@ -296,57 +314,118 @@ public class NarayanaLRAClient implements Closeable {
         lraTracef("startLRA for client %s with parent %s", clientID, parentLRA);
 
         try {
-            String encodedParentLRA = parentLRA == null ? "" : URLEncoder.encode(parentLRA.toString(), StandardCharsets.UTF_8.name());
-
-            client = getClient();
-
-            response = client.target(coordinatorUrl)
-                .path(START_PATH)
-                .queryParam(CLIENT_ID_PARAM_NAME, clientID)
-                .queryParam(TIMELIMIT_PARAM_NAME, Duration.of(timeout, unit).toMillis())
-                .queryParam(PARENT_LRA_PARAM_NAME, encodedParentLRA)
-                .request()
-                .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
-                .async()
-                .post(null)
-                .get(START_TIMEOUT, TimeUnit.SECONDS);
-
-            // validate the HTTP status code says an LRA resource was created
-            if (isUnexpectedResponseStatus(response, Response.Status.CREATED)) {
-                String responseEntity = response.hasEntity() ? response.readEntity(String.class) : "";
-                String logMsg = LRALogger.i18nLogger.error_lraCreationUnexpectedStatus(response.getStatus(), responseEntity);
-                if (verbose) {
-                    LRALogger.logger.error(logMsg);
-                }
-                throwGenericLRAException(null, response.getStatus(), // Remark the catch block already catches this one
-                        logMsg, null);
-
-                return null;
+            if (timeout < 0) {
+                throwGenericLRAException(parentLRA, BAD_REQUEST.getStatusCode(),
+                        "Invalid timeout value: " + timeout, null);
             }
 
-            lra = URI.create(response.getHeaderString(HttpHeaders.LOCATION));
-            lraTrace(lra, "startLRA returned");
-
-            Current.push(lra);
-            Current.addActiveLRACache(lra);
-
-            return lra;
+            String encodedParentLRA = parentLRA == null ? "" : URLEncoder.encode(parentLRA.toString(), StandardCharsets.UTF_8.name());
+            String id = clientID;
+            long timeLimit = Duration.of(timeout, unit).toMillis();
+
+            return send(e -> {
+                        LRALogger.i18nLogger.warn_startLRAFailed(e.getMessage(), e);
+                        return new WebApplicationException("start LRA client request failed, try again later", e,
+                                Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+                    }, START_TIMEOUT,
+                    client -> client.target(coordinator)
+                            .path(START_PATH)
+                            .queryParam(CLIENT_ID_PARAM_NAME, id)
+                            .queryParam(TIMELIMIT_PARAM_NAME, timeLimit)
+                            .queryParam(PARENT_LRA_PARAM_NAME, encodedParentLRA)
+                            .request()
+                            .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
+                            .rx()
+                            .post(null),
+                    response -> {
+                        // validate the HTTP status code says an LRA resource was created
+                        if (isUnexpectedResponseStatus(response, Response.Status.CREATED)) {
+                            String responseEntity = response.hasEntity() ? response.readEntity(String.class) : "";
+                            String logMsg = LRALogger.i18nLogger.error_lraCreationUnexpectedStatus(response.getStatus(), responseEntity);
+                            if (verbose) {
+                                LRALogger.logger.error(logMsg);
+                            }
+                            throwGenericLRAException(null, response.getStatus(), logMsg, null);
+                        }
+
+                        URI lra = URI.create(response.getHeaderString(HttpHeaders.LOCATION));
+                        lraTrace(lra, "startLRA returned");
+
+                        Current.addActiveLRACache(lra);
+
+                        return lra;
+                    });
         } catch (UnsupportedEncodingException uee) {
             String logMsg = LRALogger.i18nLogger.error_invalidFormatToEncodeParentUri(parentLRA, uee);
             if (verbose) {
                 LRALogger.logger.error(logMsg);
             }
-            throwGenericLRAException(null, INTERNAL_SERVER_ERROR.getStatusCode(),
-                    logMsg, uee);
-            return null;
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            LRALogger.i18nLogger.warn_startLRAFailed(e.getMessage(), e);
-            throw new WebApplicationException("start LRA client request failed, try again later", e,
-                    Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
-        } finally {
-            if (client != null) {
-                client.close();
-            }
+            return CompletableFuture.failedFuture(genericLRAException(null, INTERNAL_SERVER_ERROR.getStatusCode(),
+                    logMsg, uee));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Start several LRAs with one request to the coordinator. Either all the LRAs are started or none are.
+     * The new LRAs are not associated with the calling thread.
+     *
+     * @param requests the client id, time limit (in milliseconds) and parent of each LRA, a parent must be
+     *                 managed by the same coordinator
+     * @return the ids of the new LRAs in the same order as the requests
+     * @throws WebApplicationException thrown when the start of the LRAs failed
+     */
+    public List<URI> startLRAs(List<LRAStartRequest> requests) throws WebApplicationException {
+        return await(startLRAsAsync(requests));
+    }
+
+    /**
+     * Start several LRAs with one request to the coordinator without blocking the calling thread.
+     *
+     * @param requests the client id, time limit (in milliseconds) and parent of each LRA, a parent must be
+     *                 managed by the same coordinator
+     * @return a stage that completes with the ids of the new LRAs in the same order as the requests,
+     * or exceptionally with a {@link WebApplicationException} if the LRAs could not be started
+     */
+    public CompletionStage<List<URI>> startLRAsAsync(List<LRAStartRequest> requests) {
+        URI coordinator = coordinatorUrl;
+
+        lraTracef("startLRAs for %d LRAs", requests.size());
+
+        try {
+            return send(e -> {
+                        LRALogger.i18nLogger.warn_startLRAFailed(e.getMessage(), e);
+                        return new WebApplicationException("start LRA client request failed, try again later", e,
+                                Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+                    }, START_TIMEOUT,
+                    client -> client.target(coordinator)
+                            .path(START_BATCH_PATH)
+                            .request()
+                            .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
+                            .rx()
+                            .post(Entity.json(requests)),
+                    response -> {
+                        if (isUnexpectedResponseStatus(response, Response.Status.CREATED)) {
+                            String responseEntity = response.hasEntity() ? response.readEntity(String.class) : "";
+                            String logMsg = LRALogger.i18nLogger.error_lraCreationUnexpectedStatus(response.getStatus(), responseEntity);
+                            LRALogger.logger.error(logMsg);
+                            throwGenericLRAException(null, response.getStatus(), logMsg, null);
+                        }
+
+                        List<URI> lras = new ArrayList<>(requests.size());
+
+                        for (String lraId : response.readEntity(new GenericType<List<String>>() {})) {
+                            URI lra = URI.create(lraId);
+
+                            Current.addActiveLRACache(lra);
+                            lras.add(lra);
+                        }
+
+                        return lras;
+                    });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
@@ -366,6 +445,62 @@ public class NarayanaLRAClient implements Closeable {
         endLRA(lraId, true, compensator, userData);
     }
 
+    /**
+     * Cancel an LRA without blocking the calling thread. The stage completes when the coordinator has
+     * finished cancelling the LRA. Unlike {@link #cancelLRA(URI)} the LRA is not removed from the
+     * LRA context of the calling thread.
+     *
+     * @param lraId the LRA to cancel
+     * @return a stage that completes exceptionally with a {@link WebApplicationException} if the LRA could not be cancelled
+     */
+    public CompletionStage<Void> cancelLRAAsync(URI lraId) {
+        return cancelLRAAsync(lraId, null, null);
+    }
+
+    /**
+     * Close an LRA without blocking the calling thread. The stage completes when the coordinator has
+     * finished closing the LRA. Unlike {@link #closeLRA(URI)} the LRA is not removed from the
+     * LRA context of the calling thread.
+     *
+     * @param lraId the LRA to close
+     * @return a stage that completes exceptionally with a {@link WebApplicationException} if the LRA could not be closed
+     */
+    public CompletionStage<Void> closeLRAAsync(URI lraId) {
+        return closeLRAAsync(lraId, null, null);
+    }
+
+    public CompletionStage<Void> cancelLRAAsync(URI lraId, String compensator, String userData) {
+        return endLRAAsync(lraId, false, compensator, userData, false).thenApply(location -> null);
+    }
+
+    public CompletionStage<Void> closeLRAAsync(URI lraId, String compensator, String userData) {
+        return endLRAAsync(lraId, true, compensator, userData, false).thenApply(location -> null);
+    }
+
+    /**
+     * Ask the coordinator to cancel an LRA without waiting for the participants to compensate.
+     * The coordinator accepts the request and runs the protocol in the background.
+     *
+     * @param lraId the LRA to cancel
+     * @return the URI that reports the status of the LRA, poll it to find out when the LRA has finished
+     * @throws WebApplicationException if the LRA is unknown or the coordinator could not accept the request
+     */
+    public URI beginCancelLRA(URI lraId) throws WebApplicationException {
+        return endLRA(lraId, false, null, null, true);
+    }
+
+    /**
+     * Ask the coordinator to close an LRA without waiting for the participants to complete.
+     * The coordinator accepts the request and runs the protocol in the background.
+     *
+     * @param lraId the LRA to close
+     * @return the URI that reports the status of the LRA, poll it to find out when the LRA has finished
+     * @throws WebApplicationException if the LRA is unknown or the coordinator could not accept the request
+     */
+    public URI beginCloseLRA(URI lraId) throws WebApplicationException {
+        return endLRA(lraId, true, null, null, true);
+    }
+
     /**
      * Joining the LRA with identity of `lraId` as participant defined by URIs for complete, compensate, forget, leave,
      * after and status.
@@ -410,41 +545,98 @@ public class NarayanaLRAClient implements Closeable {
      */
     public URI joinLRA(URI lraId, Long timeLimit,
                        URI participantUri, StringBuilder compensatorData) throws WebApplicationException {
-        validateURI(participantUri, false, "Invalid participant URL: %s");
+        return await(joinLRAAsync(lraId, timeLimit, participantUri, compensatorData));
+    }
+
+    /**
+     * Join an LRA as a participant defined by URIs for complete, compensate, forget, leave, after and status
+     * without blocking the calling thread.
+     *
+     * @param lraId the URI of the LRA to join
+     * @param timeLimit how long the participant is prepared to wait for LRA completion
+     * @param compensateUri URI for compensation notifications
+     * @param completeUri URI for completion notifications
+     * @param forgetUri URI for forget callback
+     * @param leaveUri URI for leave requests
+     * @param statusUri URI for reporting the status of the participant
+     * @param compensatorData data provided during compensation, updated with any data from a previous enlistment
+     * @return a stage that completes with the recovery URL for this enlistment, or exceptionally with a
+     * {@link WebApplicationException} if the LRA coordinator failed to enlist the participant
+     */
+    public CompletionStage<URI> joinLRAAsync(URI lraId, Long timeLimit,
+                                             URI compensateUri, URI completeUri, URI forgetUri, URI leaveUri,
+                                             URI afterUri, URI statusUri, StringBuilder compensatorData) {
+        try {
+            return enlistCompensatorAsync(lraId, timeLimit, "",
+                    compensateUri, completeUri,
+                    forgetUri, leaveUri, afterUri, statusUri,
+                    compensatorData);
+        } catch (WebApplicationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Join an LRA as a participant defined by a participant URI without blocking the calling thread.
+     *
+     * @param lraId the URI of the LRA to join
+     * @param timeLimit how long the participant is prepared to wait for LRA completion
+     * @param participantUri URI of participant for enlistment
+     * @param compensatorData data provided during compensation, updated with any data from a previous enlistment
+     * @return a stage that completes with the recovery URL for this enlistment, or exceptionally with a
+     * {@link WebApplicationException} if the LRA coordinator failed to enlist the participant
+     */
+    public CompletionStage<URI> joinLRAAsync(URI lraId, Long timeLimit,
+                                             URI participantUri, StringBuilder compensatorData) {
+        try {
+            validateURI(participantUri, false, "Invalid participant URL: %s");
+        } catch (WebApplicationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
         StringBuilder linkHeaderValue
                 = makeLink(new StringBuilder(), null, "participant", participantUri.toASCIIString());
 
-        return enlistCompensator(lraId, timeLimit, linkHeaderValue.toString(), compensatorData);
+        return enlistCompensatorAsync(lraId, timeLimit, linkHeaderValue.toString(), compensatorData);
     }
 
     public void leaveLRA(URI lraId, String body) throws WebApplicationException {
-        Client client = null;
-        Response response;
+        await(leaveLRAAsync(lraId, body));
+    }
+
+    /**
+     * Remove a participant from an LRA without blocking the calling thread.
+     *
+     * @param lraId the LRA to leave
+     * @param body the participant to remove, in the form of the link header that was used to join the LRA
+     * @return a stage that completes exceptionally with a {@link WebApplicationException} if the participant
+     * could not be removed
+     */
+    public CompletionStage<Void> leaveLRAAsync(URI lraId, String body) {
+        URI coordinator = coordinatorUrl;
 
         try {
-            client = getClient();
-
-            response = client.target(coordinatorUrl)
-                .path(String.format(LEAVE_PATH, LRAConstants.getLRAUid(lraId)))
-                .request()
-                .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
-                .async()
-                .put(body == null ? Entity.text("") : Entity.text(body))
-                .get(LEAVE_TIMEOUT, TimeUnit.SECONDS);
-
-            if (OK.getStatusCode() != response.getStatus()) {
-                String logMsg = LRALogger.i18nLogger.error_lraLeaveUnexpectedStatus(lraId, response.getStatus(),
-                        response.hasEntity() ? response.readEntity(String.class) : "");
-                LRALogger.logger.error(logMsg);
-                throwGenericLRAException(null, response.getStatus(), logMsg, null);
-            }
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            throw new WebApplicationException("leave LRA client request timed out, try again later",
-                    Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
-        } finally {
-            if (client != null) {
-                client.close();
-            }
+            String path = String.format(LEAVE_PATH, LRAConstants.getLRAUid(lraId));
+
+            return send("leave LRA client request timed out, try again later", LEAVE_TIMEOUT,
+                    client -> client.target(coordinator)
+                            .path(path)
+                            .request()
+                            .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
+                            .rx()
+                            .put(body == null ? Entity.text("") : Entity.text(body)),
+                    response -> {
+                        if (OK.getStatusCode() != response.getStatus()) {
+                            String logMsg = LRALogger.i18nLogger.error_lraLeaveUnexpectedStatus(lraId, response.getStatus(),
+                                    response.hasEntity() ? response.readEntity(String.class) : "");
+                            LRALogger.logger.error(logMsg);
+                            throwGenericLRAException(null, response.getStatus(), logMsg, null);
+                        }
+
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
@@ -578,73 +770,78 @@ public class NarayanaLRAClient implements Closeable {
     }
 
     public LRAStatus getStatus(URI uri) throws WebApplicationException {
-        Client client = null;
-        Response response;
+        return await(getStatusAsync(uri));
+    }
+
+    /**
+     * Ask the coordinator for the status of an LRA without blocking the calling thread.
+     *
+     * @param uri the LRA
+     * @return a stage that completes with the status of the LRA, or exceptionally with a
+     * {@link WebApplicationException} (a {@link NotFoundException} if the coordinator does not know the LRA)
+     */
+    public CompletionStage<LRAStatus> getStatusAsync(URI uri) {
+        URI coordinator = coordinatorUrl;
         URL lraId;
 
         try {
             lraId = uri.toURL();
         } catch (MalformedURLException mue) {
-            throwGenericLRAException(null,
+            return CompletableFuture.failedFuture(genericLRAException(null,
                     Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
-                    "Could not convert LRA to a URL : " + mue.getClass().getName() + ":" + mue.getMessage(), mue);
-            return null;
+                    "Could not convert LRA to a URL : " + mue.getClass().getName() + ":" + mue.getMessage(), mue));
         }
 
         try {
-            client = getClient();
-            response = client.target(coordinatorUrl)
-                .path(String.format(STATUS_PATH, LRAConstants.getLRAUid(uri)))
-                .request()
-                .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
-                .async()
-                .get()
-                .get(QUERY_TIMEOUT, TimeUnit.SECONDS);
-
-            if (response.getStatus() == NOT_FOUND.getStatusCode()) {
-                String responseEntity = response.hasEntity() ? response.readEntity(String.class) : "";
-                String errorMsg = "The requested LRA it '" + lraId + "' was not found and the status can't be obtained, "
-                        + "response content: " + responseEntity;
-                throw new NotFoundException(errorMsg, Response.status(NOT_FOUND).entity(errorMsg).build());
-            }
-
-            if (response.getStatus() == NO_CONTENT.getStatusCode()) {
-                return LRAStatus.Active;
-            }
-
-            if (response.getStatus() != OK.getStatusCode()) {
-                String logMsg = LRALogger.i18nLogger.error_invalidStatusCode(coordinatorUrl, response.getStatus(), lraId);
-                LRALogger.logger.error(logMsg);
-                throwGenericLRAException(uri, response.getStatus(),
-                        logMsg, null);
-            }
-
-            if (!response.hasEntity()) {
-                String logMsg = LRALogger.i18nLogger.error_noContentOnGetStatus(coordinatorUrl, lraId);
-                LRALogger.logger.error(logMsg);
-                throwGenericLRAException(uri, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
-                        logMsg, null);
-            }
-
-            // convert the returned String into a status
-            try {
-                return fromString(response.readEntity(String.class));
-            } catch (IllegalArgumentException iae) {
-                String logMsg = LRALogger.i18nLogger.error_invalidArgumentOnStatusFromCoordinator(coordinatorUrl, lraId, iae);
-                LRALogger.logger.error(logMsg);
-                throwGenericLRAException(uri,Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
-                        logMsg, iae);
-            }
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            throw new WebApplicationException("get LRA status client request timed out, try again later",
-                    Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
-        } finally {
-            if (client != null) {
-                client.close();
-            }
+            String path = String.format(STATUS_PATH, LRAConstants.getLRAUid(uri));
+
+            return send("get LRA status client request timed out, try again later", QUERY_TIMEOUT,
+                    client -> client.target(coordinator)
+                            .path(path)
+                            .request()
+                            .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
+                            .rx()
+                            .get(),
+                    response -> {
+                        if (response.getStatus() == NOT_FOUND.getStatusCode()) {
+                            String responseEntity = response.hasEntity() ? response.readEntity(String.class) : "";
+                            String errorMsg = "The requested LRA it '" + lraId + "' was not found and the status can't be obtained, "
+                                    + "response content: " + responseEntity;
+                            throw new NotFoundException(errorMsg, Response.status(NOT_FOUND).entity(errorMsg).build());
+                        }
+
+                        if (response.getStatus() == NO_CONTENT.getStatusCode()) {
+                            return LRAStatus.Active;
+                        }
+
+                        if (response.getStatus() != OK.getStatusCode()) {
+                            String logMsg = LRALogger.i18nLogger.error_invalidStatusCode(coordinator, response.getStatus(), lraId);
+                            LRALogger.logger.error(logMsg);
+                            throwGenericLRAException(uri, response.getStatus(),
+                                    logMsg, null);
+                        }
+
+                        if (!response.hasEntity()) {
+                            String logMsg = LRALogger.i18nLogger.error_noContentOnGetStatus(coordinator, lraId);
+                            LRALogger.logger.error(logMsg);
+                            throwGenericLRAException(uri, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                                    logMsg, null);
+                        }
+
+                        // convert the returned String into a status
+                        try {
+                            return fromString(response.readEntity(String.class));
+                        } catch (IllegalArgumentException iae) {
+                            String logMsg = LRALogger.i18nLogger.error_invalidArgumentOnStatusFromCoordinator(coordinator, lraId, iae);
+                            LRALogger.logger.error(logMsg);
+                            throwGenericLRAException(uri, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                                    logMsg, iae);
+                            return null;
+                        }
+                    });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
-
-        return null;
     }
 
     /**
@@ -680,6 +877,14 @@ public class NarayanaLRAClient implements Closeable {
                                   URI compensateUri, URI completeUri,
                                   URI forgetUri, URI leaveUri, URI afterUri, URI statusUri,
                                   StringBuilder compensatorData) {
+        return await(enlistCompensatorAsync(lraUri, timelimit, uriPrefix,
+                compensateUri, completeUri, forgetUri, leaveUri, afterUri, statusUri, compensatorData));
+    }
+
+    private CompletionStage<URI> enlistCompensatorAsync(URI lraUri, Long timelimit, String uriPrefix,
+                                                        URI compensateUri, URI completeUri,
+                                                        URI forgetUri, URI leaveUri, URI afterUri, URI statusUri,
+                                                        StringBuilder compensatorData) {
         validateURI(completeUri, true, "Invalid complete URL: %s");
         validateURI(compensateUri, true, "Invalid compensate URL: %s");
         validateURI(leaveUri, true, "Invalid status URL: %s");
@@ -702,142 +907,305 @@ public class NarayanaLRAClient implements Closeable {
 
         terminateURIs.forEach((k, v) -> makeLink(linkHeaderValue, uriPrefix, k, v == null ? null : v.toASCIIString()));
 
-        return enlistCompensator(lraUri, timelimit, linkHeaderValue.toString(), compensatorData);
+        return enlistCompensatorAsync(lraUri, timelimit, linkHeaderValue.toString(), compensatorData);
     }
 
     public URI enlistCompensator(URI uri, Long timelimit, String linkHeader, StringBuilder compensatorData) {
+        return await(enlistCompensatorAsync(uri, timelimit, linkHeader, compensatorData));
+    }
+
+    /**
+     * Enlist a participant with an LRA without blocking the calling thread.
+     *
+     * @param uri the LRA to join
+     * @param timelimit how long the participant is prepared to wait for LRA completion
+     * @param linkHeader the participant endpoints in link header format
+     * @param compensatorData data provided during compensation, updated with any data from a previous enlistment
+     * @return a stage that completes with the recovery URL for this enlistment, or exceptionally with a
+     * {@link WebApplicationException} if the LRA coordinator failed to enlist the participant
+     */
+    public CompletionStage<URI> enlistCompensatorAsync(URI uri, Long timelimit, String linkHeader,
+                                                       StringBuilder compensatorData) {
         // register with the coordinator
         // put the lra id in an http header
-        Client client = null;
-        Response response = null;
-        URL lraId = null;
+        URI coordinator = coordinatorUrl;
+        URL lraId;
         String data = compensatorData == null ? null : compensatorData.toString();
 
         try {
             lraId = uri.toURL();
         } catch (MalformedURLException mue) {
-            throwGenericLRAException(null, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
-                    "Could not convert LRA to a URL : " + mue.getClass().getName() + ":" + mue.getMessage(), mue);
-        }
-        if (timelimit == null || timelimit < 0) {
-            timelimit = 0L;
+            return CompletableFuture.failedFuture(genericLRAException(null, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                    "Could not convert LRA to a URL : " + mue.getClass().getName() + ":" + mue.getMessage(), mue));
         }
 
+        long timeLimit = timelimit == null || timelimit < 0 ? 0L : timelimit;
+
         try {
-            client = getClient();
+            String path = LRAConstants.getLRAUid(uri);
+            MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+            headers.add(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING);
 
-            try {
+            if (data != null) {
+                headers.add(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, data);
+            }
 
-                MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
-                headers.add(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING);
+            headers.add("Link", linkHeader);
+
+            return send("join LRA client request timed out, try again later", JOIN_TIMEOUT,
+                    client -> client.target(coordinator)
+                            .path(path)
+                            .queryParam(TIMELIMIT_PARAM_NAME, timeLimit)
+                            .request()
+                            .headers(headers)
+                            .rx()
+                            .put(Entity.text(compensatorData == null ? linkHeader : data)),
+                    response -> {
+                        String responseEntity = response.hasEntity() ? response.readEntity(String.class) : "";
+                        // remove it and create tests for PRECONDITION_FAILED and NOT_FOUND
+                        if (response.getStatus() == Response.Status.PRECONDITION_FAILED.getStatusCode()) {
+                            String logMsg = LRALogger.i18nLogger.error_tooLateToJoin(String.valueOf(lraId), responseEntity);
+                            LRALogger.logger.error(logMsg);
+                            throw new WebApplicationException(logMsg,
+                                    Response.status(PRECONDITION_FAILED).entity(logMsg).build());
+                        } else if (response.getStatus() == NOT_FOUND.getStatusCode()) {
+                            String logMsg = LRALogger.i18nLogger.info_failedToEnlistingLRANotFound(
+                                    lraId, coordinator, NOT_FOUND.getStatusCode(), NOT_FOUND.getReasonPhrase(),
+                                    GONE.getStatusCode(), GONE.getReasonPhrase());
+                            LRALogger.logger.info(logMsg);
+                            throw new WebApplicationException(Response.status(GONE).entity(logMsg).build());
+                        } else if (response.getStatus() != OK.getStatusCode()) {
+                            throw new WebApplicationException(responseEntity, response);
+                        }
+
+                        String recoveryUrl = null;
+                        String prevParticipantData = response.getHeaderString(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME);
+
+                        if (compensatorData != null && prevParticipantData != null) {
+                            compensatorData.setLength(0);
+                            compensatorData.append(prevParticipantData);
+                        }
+
+                        try {
+                            recoveryUrl = response.getHeaderString(LRA_HTTP_RECOVERY_HEADER);
+                            return new URI(recoveryUrl);
+                        } catch (URISyntaxException e) {
+                            LRALogger.logger.infof(e,"join %s returned an invalid recovery URI '%s': %s", lraId, recoveryUrl, responseEntity);
+                            throwGenericLRAException(null, Response.Status.SERVICE_UNAVAILABLE.getStatusCode(),
+                                    "join " + lraId + " returned an invalid recovery URI '" + recoveryUrl + "' : " + responseEntity, e);
+                            return null;
+                        }
+                    });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-                if (data != null) {
-                    headers.add(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, data);
-                }
+    /**
+     * Enlist several participants with an LRA in one request. The coordinator enlists either all of them or none.
+     *
+     * @param lraId the LRA to join
+     * @param timeLimit how long the participants are prepared to wait for LRA completion
+     * @param participants the end points, in link header format, and data of each participant
+     * @return the participants in the same order with their recovery URLs, and the participant data of any
+     * participant that had already been enlisted, filled in
+     * @throws WebApplicationException if the LRA coordinator failed to enlist the participants
+     */
+    public List<LRAParticipantEnlistment> enlistCompensators(URI lraId, Long timeLimit,
+                                                             List<LRAParticipantEnlistment> participants)
+            throws WebApplicationException {
+        return await(enlistCompensatorsAsync(lraId, timeLimit, participants));
+    }
 
-                headers.add("Link", linkHeader);
-                response = client.target(coordinatorUrl)
-                    .path(LRAConstants.getLRAUid(uri))
-                    .queryParam(TIMELIMIT_PARAM_NAME, timelimit)
-                    .request()
-                    .headers(headers)
-                    .async()
-                    .put(Entity.text(compensatorData == null ? linkHeader : data))
-                    .get(JOIN_TIMEOUT, TimeUnit.SECONDS);
-
-                String responseEntity = response.hasEntity() ? response.readEntity(String.class) : "";
-                // remove it and create tests for PRECONDITION_FAILED and NOT_FOUND
-                if (response.getStatus() == Response.Status.PRECONDITION_FAILED.getStatusCode()) {
-                    String logMsg = LRALogger.i18nLogger.error_tooLateToJoin(String.valueOf(lraId), responseEntity);
-                    LRALogger.logger.error(logMsg);
-                    throw new WebApplicationException(logMsg,
-                            Response.status(PRECONDITION_FAILED).entity(logMsg).build());
-                } else if (response.getStatus() == NOT_FOUND.getStatusCode()) {
-                    String logMsg = LRALogger.i18nLogger.info_failedToEnlistingLRANotFound(
-                            lraId, coordinatorUrl, NOT_FOUND.getStatusCode(), NOT_FOUND.getReasonPhrase(),
-                            GONE.getStatusCode(), GONE.getReasonPhrase());
-                    LRALogger.logger.info(logMsg);
-                    throw new WebApplicationException(Response.status(GONE).entity(logMsg).build());
-                } else if (response.getStatus() != OK.getStatusCode()) {
-                    throw new WebApplicationException(responseEntity, response);
-                }
+    /**
+     * Enlist several participants with an LRA in one request without blocking the calling thread.
+     *
+     * @param lraId the LRA to join
+     * @param timeLimit how long the participants are prepared to wait for LRA completion
+     * @param participants the end points, in link header format, and data of each participant
+     * @return a stage that completes with the participants and their recovery URLs, or exceptionally with a
+     * {@link WebApplicationException} if the LRA coordinator failed to enlist the participants
+     */
+    public CompletionStage<List<LRAParticipantEnlistment>> enlistCompensatorsAsync(URI lraId, Long timeLimit,
+                                                                                  List<LRAParticipantEnlistment> participants) {
+        URI coordinator = coordinatorUrl;
+        long limit = timeLimit == null || timeLimit < 0 ? 0L : timeLimit;
+        URL lraUrl;
 
-                String recoveryUrl = null;
-                String prevParticipantData = response.getHeaderString(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME);
+        try {
+            lraUrl = lraId.toURL();
+        } catch (MalformedURLException mue) {
+            return CompletableFuture.failedFuture(genericLRAException(null, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                    "Could not convert LRA to a URL : " + mue.getClass().getName() + ":" + mue.getMessage(), mue));
+        }
 
-                if (compensatorData != null && prevParticipantData != null) {
-                    compensatorData.setLength(0);
-                    compensatorData.append(prevParticipantData);
-                }
+        try {
+            String path = String.format(PARTICIPANTS_PATH, LRAConstants.getLRAUid(lraId));
+
+            return send("join LRA client request timed out, try again later", JOIN_TIMEOUT,
+                    client -> client.target(coordinator)
+                            .path(path)
+                            .queryParam(TIMELIMIT_PARAM_NAME, limit)
+                            .request()
+                            .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
+                            .rx()
+                            .put(Entity.json(participants)),
+                    response -> {
+                        if (response.getStatus() == OK.getStatusCode()) {
+                            return response.readEntity(new GenericType<List<LRAParticipantEnlistment>>() {});
+                        }
+
+                        String responseEntity = response.hasEntity() ? response.readEntity(String.class) : "";
+
+                        if (response.getStatus() == PRECONDITION_FAILED.getStatusCode()) {
+                            String logMsg = LRALogger.i18nLogger.error_tooLateToJoin(String.valueOf(lraUrl), responseEntity);
+                            LRALogger.logger.error(logMsg);
+                            throw new WebApplicationException(logMsg,
+                                    Response.status(PRECONDITION_FAILED).entity(logMsg).build());
+                        } else if (response.getStatus() == NOT_FOUND.getStatusCode()) {
+                            String logMsg = LRALogger.i18nLogger.info_failedToEnlistingLRANotFound(
+                                    lraUrl, coordinator, NOT_FOUND.getStatusCode(), NOT_FOUND.getReasonPhrase(),
+                                    GONE.getStatusCode(), GONE.getReasonPhrase());
+                            LRALogger.logger.info(logMsg);
+                            throw new WebApplicationException(Response.status(GONE).entity(logMsg).build());
+                        }
+
+                        throw new WebApplicationException(responseEntity, response);
+                    });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-                try {
-                    recoveryUrl = response.getHeaderString(LRA_HTTP_RECOVERY_HEADER);
-                    return new URI(recoveryUrl);
-                } catch (URISyntaxException e) {
-                    LRALogger.logger.infof(e,"join %s returned an invalid recovery URI '%s': %s", lraId, recoveryUrl, responseEntity);
-                    throwGenericLRAException(null, Response.Status.SERVICE_UNAVAILABLE.getStatusCode(),
-                            "join " + lraId + " returned an invalid recovery URI '" + recoveryUrl + "' : " + responseEntity, e);
-                    return null;
-                }
-            // don't catch WebApplicationException, just let it propagate
-            } catch (InterruptedException | ExecutionException | TimeoutException e) {
-                throw new WebApplicationException("join LRA client request timed out, try again later",
-                        Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
-            }
+    private void endLRA(URI lra, boolean confirm, String compensator, String userData) throws WebApplicationException {
+        endLRA(lra, confirm, compensator, userData, false);
+    }
+
+    // returns the status URI of the LRA if respondAsync is set, otherwise null
+    private URI endLRA(URI lra, boolean confirm, String compensator, String userData, boolean respondAsync)
+            throws WebApplicationException {
+        try {
+            return await(endLRAAsync(lra, confirm, compensator, userData, respondAsync));
         } finally {
-            if (client != null) {
-                client.close();
-            }
+            Current.pop(lra);
         }
     }
 
-    private void endLRA(URI lra, boolean confirm, String compensator, String userData) throws WebApplicationException {
-        Client client = null;
-        Response response = null;
+    private CompletionStage<URI> endLRAAsync(URI lra, boolean confirm, String compensator, String userData,
+                                             boolean respondAsync) {
+        URI coordinator = coordinatorUrl;
+        CompletionStage<URI> end;
 
         lraTracef(lra, "%s LRA", confirm ? "close" : "compensate");
 
         try {
-            client = getClient();
             String lraUid = LRAConstants.getLRAUid(lra);
-            try {
-                response = client.target(coordinatorUrl)
-                    .path(confirm ? String.format(CLOSE_PATH, lraUid) : String.format(CANCEL_PATH, lraUid))
-                    .request()
-                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
-                    .header(NARAYANA_LRA_PARTICIPANT_LINK_HEADER_NAME, compensator)
-                    .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, userData)
-                    .async()
-                    .put(Entity.text(""))
-                    .get(END_TIMEOUT, TimeUnit.SECONDS);
-            } catch (InterruptedException | ExecutionException | TimeoutException e) {
-                throw new WebApplicationException("end LRA client request timed out, try again later",
-                        Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
-            }
 
-            if (isUnexpectedResponseStatus(response, OK, Response.Status.ACCEPTED, NOT_FOUND)) {
-                String warnMsg = LRALogger.i18nLogger.error_lraTerminationUnexpectedStatus(response.getStatus(),
-                        response.hasEntity() ? response.readEntity(String.class) : "");
+            end = send("end LRA client request timed out, try again later", END_TIMEOUT,
+                    client -> client.target(coordinator)
+                            .path(confirm ? String.format(CLOSE_PATH, lraUid) : String.format(CANCEL_PATH, lraUid))
+                            .request()
+                            .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, LRAConstants.CURRENT_API_VERSION_STRING)
+                            .header(NARAYANA_LRA_PARTICIPANT_LINK_HEADER_NAME, compensator)
+                            .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, userData)
+                            .header(PREFER_HEADER, respondAsync ? RESPOND_ASYNC : null)
+                            .rx()
+                            .put(Entity.text("")),
+                    response -> {
+                        if (isUnexpectedResponseStatus(response, OK, Response.Status.ACCEPTED, NOT_FOUND)) {
+                            String warnMsg = LRALogger.i18nLogger.error_lraTerminationUnexpectedStatus(response.getStatus(),
+                                    response.hasEntity() ? response.readEntity(String.class) : "");
+
+                            LRALogger.logger.warn(warnMsg);
+                            throwGenericLRAException(lra, INTERNAL_SERVER_ERROR.getStatusCode(), warnMsg, null);
+                        }
+
+                        if (response.getStatus() == NOT_FOUND.getStatusCode()) {
+                            String errorMsg = LRALogger.i18nLogger.get_couldNotCompleteCompensateOnReturnedStatus(
+                                    confirm ? "close" : "compensate", lra, coordinator, NOT_FOUND.getReasonPhrase());
+                            LRALogger.logger.info(errorMsg);
+                            throw new NotFoundException(errorMsg,
+                                    Response.status(NOT_FOUND).entity(lra.toASCIIString()).build());
+                        }
+
+                        if (!respondAsync) {
+                            return null;
+                        }
+
+                        // a coordinator that does not support asynchronous termination ends the LRA synchronously
+                        // and does not return a Location so fall back to the status resource of the LRA
+                        URI location = response.getLocation();
+
+                        return location != null ? location
+                                : UriBuilder.fromUri(coordinator).path(String.format(STATUS_PATH, lraUid)).build();
+                    });
+        } catch (RuntimeException e) {
+            end = CompletableFuture.failedFuture(e);
+        }
 
-                LRALogger.logger.warn(warnMsg);
-                throwGenericLRAException(lra, INTERNAL_SERVER_ERROR.getStatusCode(), warnMsg, null);
-            }
+        return end.whenComplete((location, failure) -> Current.removeActiveLRACache(lra));
+    }
 
-            if (response.getStatus() == NOT_FOUND.getStatusCode()) {
-                String errorMsg = LRALogger.i18nLogger.get_couldNotCompleteCompensateOnReturnedStatus(
-                        confirm ? "close" : "compensate", lra, coordinatorUrl, NOT_FOUND.getReasonPhrase());
-                LRALogger.logger.info(errorMsg);
-                throw new NotFoundException(errorMsg,
-                        Response.status(NOT_FOUND).entity(lra.toASCIIString()).build());
-            }
+    /*
+     * Send a request to the coordinator using the shared client of the coordinator. The stage completes with the
+     * value produced by the handler, or exceptionally with a WebApplicationException: the one thrown by the handler
+     * or, if no response arrived within the timeout, one that reports that the coordinator is unavailable.
+     * The response is closed, and the client released, once the handler has run.
+     */
+    private <T> CompletionStage<T> send(String failureMessage, long timeout,
+                                        Function<CoordinatorClientPool.PooledClient, CompletionStage<Response>> request,
+                                        Function<Response, T> handler) {
+        return send(e -> new WebApplicationException(failureMessage, e, Response.Status.SERVICE_UNAVAILABLE.getStatusCode()),
+                timeout, request, handler);
+    }
 
-        } finally {
-            Current.pop(lra);
-            Current.removeActiveLRACache(lra);
+    private <T> CompletionStage<T> send(Function<Throwable, WebApplicationException> onFailure, long timeout,
+                                        Function<CoordinatorClientPool.PooledClient, CompletionStage<Response>> request,
+                                        Function<Response, T> handler) {
+        CoordinatorClientPool.PooledClient client = getClient();
+        CompletableFuture<Response> response = new CompletableFuture<>();
 
-            if (client != null) {
-                client.close();
+        try {
+            request.apply(client).whenComplete((r, failure) -> {
+                if (failure != null) {
+                    response.completeExceptionally(failure);
+                } else if (!response.complete(r)) {
+                    r.close(); // the request timed out so nobody will read the response
+                }
+            });
+        } catch (RuntimeException e) {
+            response.completeExceptionally(e);
+        }
+
+        return response
+                .orTimeout(timeout, TimeUnit.SECONDS)
+                .handle((r, failure) -> {
+                    try {
+                        if (failure != null) {
+                            throw onFailure.apply(failure instanceof CompletionException ? failure.getCause() : failure);
+                        }
+
+                        return handler.apply(r);
+                    } finally {
+                        if (r != null) {
+                            r.close();
+                        }
+
+                        client.close();
+                    }
+                });
+    }
+
+    // wait for a request to the coordinator to finish and report its failure in the same way as the blocking API did
+    private static <T> T await(CompletionStage<T> stage) {
+        try {
+            return stage.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+
+            throw e;
         }
     }
 
@@ -909,11 +1277,15 @@ public class NarayanaLRAClient implements Closeable {
     }
 
     private void throwGenericLRAException(URI lraId, int statusCode, String message, Throwable cause) throws WebApplicationException {
+        throw genericLRAException(lraId, statusCode, message, cause);
+    }
+
+    private WebApplicationException genericLRAException(URI lraId, int statusCode, String message, Throwable cause) {
         String errorMsg = String.format("%s: %s", lraId, message);
-        throw new WebApplicationException(errorMsg, cause, Response.status(statusCode).entity(errorMsg).build());
+        return new WebApplicationException(errorMsg, cause, Response.status(statusCode).entity(errorMsg).build());
     }
 
-    private Client getClient() {
-        return ClientBuilder.newClient();
+    private CoordinatorClientPool.PooledClient getClient() {
+        return CoordinatorClientPool.acquire(coordinatorUrl);
     }
 }
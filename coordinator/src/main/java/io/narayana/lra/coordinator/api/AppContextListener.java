@@ -7,6 +7,7 @@ package io.narayana.lra.coordinator.api;
 
 import com.arjuna.ats.arjuna.recovery.RecoveryManager;
 import io.narayana.lra.coordinator.internal.Implementations;
+import io.narayana.lra.coordinator.internal.ParticipantClient;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
@@ -23,5 +24,6 @@ public class AppContextListener implements ServletContextListener {
     @Override
     public void contextDestroyed(ServletContextEvent servletContextEvent) {
         Implementations.uninstall();
+        ParticipantClient.close();
     }
 }
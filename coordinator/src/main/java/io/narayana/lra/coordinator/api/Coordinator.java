@@ -5,11 +5,16 @@
 
 package io.narayana.lra.coordinator.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.narayana.lra.Current;
 import io.narayana.lra.LRAConstants;
 import io.narayana.lra.LRAData;
+import io.narayana.lra.LRAParticipantEnlistment;
+import io.narayana.lra.LRAStartRequest;
 import io.narayana.lra.coordinator.domain.model.LongRunningAction;
 import io.narayana.lra.coordinator.domain.service.LRAService;
 import io.narayana.lra.coordinator.internal.LRARecoveryModule;
@@ -20,6 +25,7 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.json.Json;
 import jakarta.json.JsonObject;
 import jakarta.ws.rs.ApplicationPath;
+import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.HeaderParam;
@@ -41,16 +47,23 @@ import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Link;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriBuilder;
 import jakarta.ws.rs.core.UriInfo;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.faulttolerance.Bulkhead;
@@ -80,11 +93,15 @@ import static io.narayana.lra.LRAConstants.COORDINATOR_PATH_NAME;
 import static io.narayana.lra.LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME;
 import static io.narayana.lra.LRAConstants.PARENT_LRA_PARAM_NAME;
 import static io.narayana.lra.LRAConstants.PARTICIPANT_TIMEOUT;
+import static io.narayana.lra.LRAConstants.PREFERENCE_APPLIED_HEADER;
+import static io.narayana.lra.LRAConstants.PREFER_HEADER;
 import static io.narayana.lra.LRAConstants.RECOVERY_COORDINATOR_PATH_NAME;
+import static io.narayana.lra.LRAConstants.RESPOND_ASYNC;
 import static io.narayana.lra.LRAConstants.STATUS;
 import static io.narayana.lra.LRAConstants.STATUS_PARAM_NAME;
 import static io.narayana.lra.LRAConstants.TIMELIMIT_PARAM_NAME;
 import static io.narayana.lra.LRAConstants.CURRENT_API_VERSION_STRING;
+import static jakarta.ws.rs.core.Response.Status.ACCEPTED;
 import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static jakarta.ws.rs.core.Response.Status.PRECONDITION_FAILED;
@@ -122,6 +139,19 @@ public class Coordinator extends Application {
     private UriInfo context;
 
     private static final boolean allowParticipantData = initAllowParticipantData();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    // newline delimited JSON, one LRA per line
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final String LIMIT_PARAM_NAME = "limit";
+    private static final String CURSOR_PARAM_NAME = "cursor";
+    private static final String SORT_PARAM_NAME = "sort";
+    private static final String TERMINATION_PARALLELISM_PARAM_NAME = "TerminationParallelism";
+    // the largest number of LRAs returned in one page of the LRA listing, or of the failed LRAs (see RecoveryCoordinator)
+    static final int MAX_PAGE_SIZE = Integer.getInteger("lra.coordinator.list.max.page.size", 1000);
+    // the largest number of LRAs that one batch start request may ask for
+    private static final int MAX_START_BATCH_SIZE = Integer.getInteger("lra.coordinator.batch.start.max", 1000);
+    // the largest number of participants that one bulk join request may enlist
+    private static final int MAX_JOIN_BATCH_SIZE = Integer.getInteger("lra.coordinator.batch.join.max", 100);
 
     private final LRAService lraService;
     private final RecoveryCoordinator recoveryCoordinator;
@@ -154,13 +184,17 @@ public class Coordinator extends Application {
 
     @GET
     @Path("/")
-    @Produces({MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
-    @Operation(summary = "Returns all LRAs", description = "Gets both active and recovering LRAs")
+    @Produces({MediaType.APPLICATION_JSON, APPLICATION_NDJSON, MediaType.TEXT_PLAIN})
+    @Operation(summary = "Returns all LRAs", description = "Gets both active and recovering LRAs. "
+            + "If any of the limit, cursor or sort parameters is present then one page of the LRAs is returned, "
+            + "with a Link header with rel=\"next\" if there may be more pages. "
+            + "JSON responses are written as the LRAs are read so the full list is never built in memory")
     @APIResponses({
         @APIResponse(responseCode = "200", description = "The LRAData json array which is known to coordinator",
             content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = LRAData.class)),
             headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME)}),
-        @APIResponse(responseCode = "400", description = "Provided Status is not recognized as a valid LRA status value",
+        @APIResponse(responseCode = "400", description = "Provided Status is not recognized as a valid LRA status value "
+                + "or the limit, cursor or sort parameter is not valid",
             content = @Content(schema = @Schema(implementation = String.class)),
             headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME)}),
         @APIResponse(responseCode = "417", description = "The requested version provided in HTTP Header is not supported by this end point",
@@ -169,42 +203,128 @@ public class Coordinator extends Application {
     public Response getAllLRAs(
             @Parameter(name = STATUS_PARAM_NAME, description = "Filter the returned LRAs to only those in the give state (see CompensatorStatus)")
             @QueryParam(STATUS_PARAM_NAME) @DefaultValue("") String state,
+            @Parameter(name = LIMIT_PARAM_NAME, description = "The maximum number of LRAs to return, "
+                    + "0 means the maximum page size of the coordinator when paging and no limit otherwise")
+            @QueryParam(LIMIT_PARAM_NAME) @DefaultValue("0") int limit,
+            @Parameter(name = CURSOR_PARAM_NAME, description = "Return the page that follows the LRA that this cursor, "
+                    + "taken from the next link of the previous page, was created for")
+            @QueryParam(CURSOR_PARAM_NAME) @DefaultValue("") String cursor,
+            @Parameter(name = SORT_PARAM_NAME, description = "The order of the LRAs: id (the default when paging) "
+                    + "or startTime, prefixed with - for descending order")
+            @QueryParam(SORT_PARAM_NAME) @DefaultValue("") String sort,
             @HeaderParam(HttpHeaders.ACCEPT) @DefaultValue(MediaType.TEXT_PLAIN) String mediaType,
             @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME)
             @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version) {
-        LRAStatus requestedLRAStatus = null;
-        if (!state.isEmpty()) {
+        LRAStatus requestedLRAStatus = parseLRAStatus(state, version);
+        List<LRAData> page = null;
+        Link next = null;
+
+        if (limit != 0 || !cursor.isEmpty() || !sort.isEmpty()) {
+            int pageSize = limit == 0 ? MAX_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
             try {
-                requestedLRAStatus = LRAStatus.valueOf(state);
+                page = lraService.getPage(requestedLRAStatus, sort.isEmpty() ? "id" : sort, cursor, pageSize);
             } catch (IllegalArgumentException e) {
-                String errorMsg = "Status " + state + " is not a valid LRAStatus value";
+                String errorMsg = "Invalid page request: " + e.getMessage();
                 LRALogger.logger.debugf(errorMsg);
                 throw new WebApplicationException(errorMsg, e,
                         Response.status(BAD_REQUEST).header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version).entity(errorMsg).build());
             }
+
+            if (page.size() == pageSize) {
+                // there may be more LRAs so link to the page that follows this one
+                next = Link.fromUri(context.getRequestUriBuilder()
+                        .replaceQueryParam(CURSOR_PARAM_NAME, LRAService.getCursor(page.get(pageSize - 1)))
+                        .build())
+                        .rel("next")
+                        .build();
+            }
         }
 
-        List<LRAData> lras = lraService.getAll(requestedLRAStatus);
+        Response.ResponseBuilder builder;
 
-        if (mediaType.equals(MediaType.APPLICATION_JSON)) {
-            try {
-                String jsonArray = new ObjectMapper().writeValueAsString(lras);
+        boolean ndjson = mediaType.contains(APPLICATION_NDJSON);
 
-                return Response.ok()
-                        .entity(jsonArray)
-                        .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
-                        .build();
-            } catch (JsonProcessingException e) {
-                return Response.status(INTERNAL_SERVER_ERROR)
-                        .entity(e.getMessage())
-                        .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
-                        .build();
-            }
+        if (ndjson || mediaType.equals(MediaType.APPLICATION_JSON)) {
+            // write each entry as it is produced rather than serializing the whole array up front
+            Stream<LRAData> lras = page != null ? page.stream() : lraService.streamAll(requestedLRAStatus);
+
+            builder = Response.ok()
+                    .entity((StreamingOutput) os -> writeLRAs(os, lras.iterator(), ndjson))
+                    .type(ndjson ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON);
         } else { // produce MediaType.TEXT_PLAIN
-            return Response.ok()
-                    .entity(lras)
-                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
-                    .build();
+            builder = Response.ok().entity(page != null ? page : lraService.getAll(requestedLRAStatus));
+        }
+
+        if (next != null) {
+            builder.links(next);
+        }
+
+        return builder.header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version).build();
+    }
+
+    @GET
+    @Path("count")
+    @Produces(MediaType.TEXT_PLAIN)
+    @Operation(summary = "Returns the number of LRAs",
+        description = "Counts both active and recovering LRAs without reading them so the cost does not depend on how many there are")
+    @APIResponses({
+        @APIResponse(responseCode = "200", description = "The number of LRAs known to the coordinator",
+            content = @Content(schema = @Schema(implementation = Integer.class)),
+            headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME)}),
+        @APIResponse(responseCode = "400", description = "Provided Status is not recognized as a valid LRA status value",
+            content = @Content(schema = @Schema(implementation = String.class)),
+            headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME)}),
+        @APIResponse(responseCode = "417", description = "The requested version provided in HTTP Header is not supported by this end point",
+                content = @Content(schema = @Schema(implementation = String.class))),
+    })
+    public Response getLRACount(
+            @Parameter(name = STATUS_PARAM_NAME, description = "Only count the LRAs in the give state (see CompensatorStatus)")
+            @QueryParam(STATUS_PARAM_NAME) @DefaultValue("") String state,
+            @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME)
+            @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version) {
+        return Response.ok()
+                .entity(String.valueOf(lraService.getCount(parseLRAStatus(state, version))))
+                .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
+                .build();
+    }
+
+    // the status filter of a query, null if the query is not filtered
+    private LRAStatus parseLRAStatus(String state, String version) {
+        if (state.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return LRAStatus.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            String errorMsg = "Status " + state + " is not a valid LRAStatus value";
+            LRALogger.logger.debugf(errorMsg);
+            throw new WebApplicationException(errorMsg, e,
+                    Response.status(BAD_REQUEST).header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version).entity(errorMsg).build());
+        }
+    }
+
+    // write the LRAs either as a JSON array or as newline delimited JSON
+    private static void writeLRAs(OutputStream os, Iterator<LRAData> lras, boolean ndjson) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(os)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            if (ndjson) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                generator.writeStartArray();
+            }
+
+            while (lras.hasNext()) {
+                generator.writeObject(lras.next());
+            }
+
+            if (ndjson) {
+                generator.writeRaw('\n');
+            } else {
+                generator.writeEndArray();
+            }
         }
     }
 
@@ -321,13 +441,18 @@ public class Coordinator extends Application {
             @Parameter(name = PARENT_LRA_PARAM_NAME,
                 description = "The enclosing LRA if this new LRA is nested")
             @QueryParam(PARENT_LRA_PARAM_NAME) @DefaultValue("") String parentLRA,
+            @Parameter(name = TERMINATION_PARALLELISM_PARAM_NAME,
+                description = "The maximum number of participants that are asked to complete or compensate "
+                    + "at the same time when the LRA ends, 0 means the default of the coordinator")
+            @QueryParam(TERMINATION_PARALLELISM_PARAM_NAME) @DefaultValue("0") int terminationParallelism,
             @HeaderParam(HttpHeaders.ACCEPT) @DefaultValue(MediaType.TEXT_PLAIN) String mediaType,
             @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME)
             @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version) throws WebApplicationException {
 
         URI parentId = (parentLRA == null || parentLRA.trim().isEmpty()) ? null : toURI(parentLRA);
         String coordinatorUrl = String.format("%s%s", context.getBaseUri(), COORDINATOR_PATH_NAME);
-        LongRunningAction lra = lraService.startLRA(coordinatorUrl, parentId, clientId, timelimit);
+        LongRunningAction lra = lraService.startLRA(coordinatorUrl, parentId, clientId, timelimit,
+                terminationParallelism);
         URI lraId = lra.getId();
 
         if (parentId != null) {
@@ -378,6 +503,91 @@ public class Coordinator extends Application {
                 .build();
     }
 
+    /**
+     * Performing a POST on {@value LRAConstants#COORDINATOR_PATH_NAME}/start/batch with a JSON array of
+     * {@link LRAStartRequest} will start all the LRAs in one request and return a JSON array of their ids,
+     * in the same order as the requests. Either every LRA of the batch is started or none is.
+     */
+    @POST
+    @Path("start/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead
+    @Operation(summary = "Start a batch of new LRAs",
+        description = "Starts several LRAs in one request. Each entry of the batch has the same meaning as "
+            + "the query parameters of a single start request. Nested LRAs of a batch must have a parent "
+            + "that is managed by this coordinator.")
+    @APIResponses({
+        @APIResponse(responseCode = "201",
+            description = "The request was successful and the response body contains the ids of the new LRAs",
+            content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = String.class)),
+            headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
+        @APIResponse(responseCode = "400", description = "The body is not a JSON array of start requests",
+            content = @Content(schema = @Schema(implementation = String.class))),
+        @APIResponse(responseCode = "412", description = "The parent of a nested LRA is not managed by this coordinator",
+            content = @Content(schema = @Schema(implementation = String.class))),
+        @APIResponse(responseCode = "413", description = "The batch contains more LRAs than the coordinator accepts in one request",
+            content = @Content(schema = @Schema(implementation = String.class))),
+        @APIResponse(responseCode = "417", description = "The requested version provided in HTTP Header is not supported by this end point",
+                content = @Content(schema = @Schema(implementation = String.class))),
+        @APIResponse(responseCode = "500", description = "The LRAs could not be started. Coordinator internal error.",
+                content = @Content(schema = @Schema(implementation = String.class)))
+    })
+    public Response startLRAs(
+            @RequestBody(name = "Start requests",
+                description = "A JSON array of objects with the fields clientId, timeLimit (in milliseconds) and parentLRA",
+                content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = LRAStartRequest.class)))
+            String requests,
+            @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME)
+            @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version) throws WebApplicationException {
+
+        List<LRAStartRequest> batch;
+
+        try {
+            batch = requests == null || requests.isBlank()
+                    ? List.of()
+                    : objectMapper.readValue(requests, new TypeReference<List<LRAStartRequest>>() {});
+        } catch (JsonProcessingException e) {
+            String errorMsg = "Invalid batch start request: " + e.getOriginalMessage();
+            throw new WebApplicationException(errorMsg, e,
+                    Response.status(BAD_REQUEST).header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version).entity(errorMsg).build());
+        }
+
+        if (batch.size() > MAX_START_BATCH_SIZE) {
+            String errorMsg = String.format("A batch can start at most %d LRAs", MAX_START_BATCH_SIZE);
+            throw new WebApplicationException(errorMsg, Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version).entity(errorMsg).build());
+        }
+
+        for (LRAStartRequest request : batch) {
+            URI parentId = request.getParentLRA();
+
+            // joining a parent that belongs to another coordinator needs a remote call per LRA
+            if (parentId != null && !lraService.hasTransaction(parentId)) {
+                String errorMsg = String.format("The parent LRA '%s' is not managed by this coordinator", parentId);
+                throw new WebApplicationException(errorMsg, Response.status(PRECONDITION_FAILED)
+                        .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version).entity(errorMsg).build());
+            }
+        }
+
+        String coordinatorUrl = String.format("%s%s", context.getBaseUri(), COORDINATOR_PATH_NAME);
+        List<String> lraIds = lraService.startLRAs(coordinatorUrl, batch).stream()
+                .map(lra -> lra.getId().toASCIIString())
+                .collect(Collectors.toList());
+
+        try {
+            return Response.status(Response.Status.CREATED)
+                    .entity(objectMapper.writeValueAsString(lraIds))
+                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
+                    .build();
+        } catch (JsonProcessingException e) {
+            return Response.status(INTERNAL_SERVER_ERROR)
+                    .entity(e.getMessage())
+                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
+                    .build();
+        }
+    }
+
     @PUT
     @Path("{LraId}/renew")
     @Operation(summary = "Update the TimeLimit for an existing LRA",
@@ -479,6 +689,9 @@ public class Coordinator extends Application {
      * The complete message will be sent to the participants.
      * Upon termination, the URL is implicitly deleted. If it no longer exists, then 404 will be returned.
      * The invoker cannot know for sure whether the lra completed or compensated without enlisting a participant.
+     * If the request carries the header {@code Prefer: respond-async} then the coordinator replies with
+     * 202 Accepted and a Location header referencing the status of the LRA and completes the participants
+     * in the background.
      */
     @PUT
     @Path("{LraId}/close")
@@ -494,6 +707,11 @@ public class Coordinator extends Application {
             @APIResponse(responseCode = "200", description = "The complete message was sent to all coordinators",
                 content = @Content(schema = @Schema(implementation = String.class)),
                 headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
+            @APIResponse(responseCode = "202", description = "The request asked to respond asynchronously and the"
+                + " complete message will be sent to the participants in the background. The Location header"
+                + " references the status of the LRA",
+                content = @Content(schema = @Schema(implementation = String.class)),
+                headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
             @APIResponse(responseCode = "404", description = "The coordinator has no knowledge of this LRA",
                     content = @Content(schema = @Schema(implementation = String.class)),
                     headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
@@ -507,7 +725,13 @@ public class Coordinator extends Application {
             @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME)
             @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version,
             @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_LINK_HEADER_NAME) @DefaultValue("") String compensator,
-            @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData) {
+            @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData,
+            @Parameter(name = PREFER_HEADER, description = "Use respond-async to end the LRA in the background")
+            @HeaderParam(PREFER_HEADER) @DefaultValue("") String prefer) {
+
+        if (isRespondAsync(prefer)) {
+            return buildAsyncResponse(toURI(lraId), false, compensator, userData, version, mediaType);
+        }
 
         LRAData lraData = lraService.endLRA(toURI(lraId), false, false, compensator, userData);
 
@@ -526,6 +750,11 @@ public class Coordinator extends Application {
         @APIResponse(responseCode = "200", description = "The compensate message was sent to all coordinators",
             content = @Content(schema = @Schema(implementation = String.class)),
             headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
+        @APIResponse(responseCode = "202", description = "The request asked to respond asynchronously and the"
+            + " compensate message will be sent to the participants in the background. The Location header"
+            + " references the status of the LRA",
+            content = @Content(schema = @Schema(implementation = String.class)),
+            headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
         @APIResponse(responseCode = "404", description = "The coordinator has no knowledge of this LRA",
             content = @Content(schema = @Schema(implementation = String.class)),
             headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
@@ -539,9 +768,15 @@ public class Coordinator extends Application {
         @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME)
         @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version,
         @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_LINK_HEADER_NAME) @DefaultValue("") String compensator,
-        @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData)
+        @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData,
+        @Parameter(name = PREFER_HEADER, description = "Use respond-async to end the LRA in the background")
+        @HeaderParam(PREFER_HEADER) @DefaultValue("") String prefer)
             throws NotFoundException {
 
+        if (isRespondAsync(prefer)) {
+            return buildAsyncResponse(toURI(lraId), true, compensator, userData, version, mediaType);
+        }
+
         LRAData lraData = lraService.endLRA(toURI(lraId), true, false, compensator, userData);
 
         return buildResponse(lraData.getStatus().name(), version, mediaType);
@@ -730,6 +965,115 @@ public class Coordinator extends Application {
                             .build());
         }
     }
+    /**
+     * Performing a PUT on {@value LRAConstants#COORDINATOR_PATH_NAME}/{LraId}/participants with a JSON array of
+     * {@link LRAParticipantEnlistment} will enlist all the participants with the LRA in one step. The response
+     * is the same array with the recovery URL of each participant filled in.
+     */
+    @PUT
+    @Path("{LraId}/participants")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "A Compensator can join with the LRA together with other compensators",
+        description = "Enlists several participants in one request. The LRA is locked and made durable once for "
+            + "the whole batch and either all of the participants are enlisted or none are.")
+    @APIResponses({
+        @APIResponse(responseCode = "200",
+            description = "The participants were successfully registered with the LRA and the response body "
+                + "contains the recovery URL of each participant",
+            content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = LRAParticipantEnlistment.class)),
+            headers = { @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
+        @APIResponse(responseCode = "400", description = "The body is not a JSON array of participants or a participant has no link",
+            content = @Content(schema = @Schema(implementation = String.class))),
+        @APIResponse(responseCode = "404", description = "The coordinator has no knowledge of this LRA",
+            content = @Content(schema = @Schema(implementation = String.class))),
+        @APIResponse(responseCode = "412",
+            description = "The LRA is not longer active (ie in the complete or compensate message has been sent)",
+            content = @Content(schema = @Schema(implementation = String.class))),
+        @APIResponse(responseCode = "413", description = "The batch contains more participants than the coordinator accepts in one request",
+            content = @Content(schema = @Schema(implementation = String.class))),
+        @APIResponse(responseCode = "417", description = "The requested version provided in HTTP Header is not supported by this end point",
+            content = @Content(schema = @Schema(implementation = String.class))),
+        @APIResponse(responseCode = "503", description = "The LRA could not be updated, try again later",
+            content = @Content(schema = @Schema(implementation = String.class)))
+    })
+    public Response joinLRAWithParticipants(
+            @Parameter(name = "LraId", description = "The unique identifier of the LRA", required = true)
+            @PathParam("LraId") String lraId,
+            @Parameter(name = TIMELIMIT_PARAM_NAME,
+                description = "The time limit in milliseconds that the Compensators can guarantee that they can compensate "
+                    + "the work performed by the service")
+            @QueryParam(TIMELIMIT_PARAM_NAME) @DefaultValue("0") long timeLimit,
+            @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME)
+            @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version,
+            @RequestBody(name = "Participants",
+                description = "A JSON array of objects with the fields link (the participant end points in link header "
+                    + "format) and participantData",
+                content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = LRAParticipantEnlistment.class)))
+            String participants) throws NotFoundException {
+        final String recoveryUrlBase = String.format("%s%s/%s",
+                context.getBaseUri().toASCIIString(), COORDINATOR_PATH_NAME, RECOVERY_COORDINATOR_PATH_NAME);
+        List<LRAParticipantEnlistment> enlistments;
+
+        try {
+            enlistments = participants == null || participants.isBlank()
+                    ? List.of()
+                    : objectMapper.readValue(participants, new TypeReference<List<LRAParticipantEnlistment>>() {});
+        } catch (JsonProcessingException e) {
+            String errorMsg = "Invalid bulk join request: " + e.getOriginalMessage();
+            throw new WebApplicationException(errorMsg, e,
+                    Response.status(BAD_REQUEST).header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version).entity(errorMsg).build());
+        }
+
+        if (enlistments.size() > MAX_JOIN_BATCH_SIZE) {
+            String errorMsg = String.format("A batch can enlist at most %d participants", MAX_JOIN_BATCH_SIZE);
+            throw new WebApplicationException(errorMsg, Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version).entity(errorMsg).build());
+        }
+
+        for (LRAParticipantEnlistment enlistment : enlistments) {
+            String userData = enlistment.getParticipantData();
+
+            // test to see if the join request contains any participant specific data
+            if (userData != null && !userData.isEmpty() && !isAllowParticipantData(version)) {
+                String logMsg = LRALogger.i18nLogger.error_participant_data_disallowed(lraId);
+                LRALogger.logger.error(logMsg);
+
+                throw new WebApplicationException(logMsg,
+                        Response.status(PRECONDITION_FAILED).entity(logMsg)
+                                .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
+                                .build());
+            }
+        }
+
+        int status;
+
+        try {
+            status = lraService.joinLRAs(toURI(lraId), timeLimit, enlistments, recoveryUrlBase, version);
+        } catch (ServiceUnavailableException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE.getStatusCode()).entity(e.getMessage()).build();
+        }
+
+        if (status != OK.getStatusCode()) {
+            return Response.status(status)
+                    .entity(String.format("Cannot enlist the participants with LRA '%s'", lraId))
+                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
+                    .build();
+        }
+
+        try {
+            return Response.ok()
+                    .entity(objectMapper.writeValueAsString(enlistments))
+                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
+                    .build();
+        } catch (JsonProcessingException e) {
+            return Response.status(INTERNAL_SERVER_ERROR)
+                    .entity(e.getMessage())
+                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
+                    .build();
+        }
+    }
+
     /**
      * A participant can resign from an LRA at any time prior to the completion of an activity by performing a
      * PUT on {@value LRAConstants#COORDINATOR_PATH_NAME}/{LraId}/remove with the URL of the participant.
@@ -765,21 +1109,46 @@ public class Coordinator extends Application {
     }
 
     private Response buildResponse(String status, String apiVersion, String mediaType) throws NotFoundException {
+        return buildResponse(Response.ok(), status, apiVersion, mediaType);
+    }
+
+    private Response buildResponse(Response.ResponseBuilder builder, String status, String apiVersion, String mediaType) {
         if (mediaType.equals(MediaType.APPLICATION_JSON)) {
             JsonObject model = Json.createObjectBuilder()
                     .add("status", status)
                     .build();
 
-            return Response.ok(model.toString())
+            return builder.entity(model.toString())
                     .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, apiVersion)
                     .build();
         } else { // produce MediaType.TEXT_PLAIN
-            return Response.ok(status)
+            return builder.entity(status)
                     .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, apiVersion)
                     .build();
         }
     }
 
+    private static boolean isRespondAsync(String prefer) {
+        for (String preference : prefer.split(",")) {
+            if (RESPOND_ASYNC.equalsIgnoreCase(preference.trim())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // accept a close or cancel request and run the participant protocol in the background
+    private Response buildAsyncResponse(URI lraId, boolean compensate, String compensator, String userData,
+                                        String apiVersion, String mediaType) {
+        LRAStatus status = lraService.endLRAAsync(lraId, compensate, compensator, userData);
+        URI statusUri = UriBuilder.fromUri(lraId).replaceQuery(null).path(STATUS).build();
+
+        return buildResponse(Response.status(ACCEPTED)
+                .location(statusUri)
+                .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC), status.name(), apiVersion, mediaType);
+    }
+
     private URI toURI(String lraId) {
         URL url;
 
@@ -6,6 +6,7 @@
 package io.narayana.lra.coordinator.api;
 
 import io.narayana.lra.LRAData;
+import io.narayana.lra.ParticipantRetryData;
 import io.narayana.lra.coordinator.domain.service.LRAService;
 import io.narayana.lra.coordinator.internal.LRARecoveryModule;
 import io.narayana.lra.logging.LRALogger;
@@ -21,14 +22,17 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Link;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -36,12 +40,17 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 
+import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static jakarta.ws.rs.core.Response.Status.NOT_FOUND;
 import static jakarta.ws.rs.core.Response.Status.PRECONDITION_FAILED;
 
 @Tag(name = "LRA Recovery")
 public class RecoveryCoordinator {
+    private static final String LIMIT_PARAM_NAME = "limit";
+    private static final String CURSOR_PARAM_NAME = "cursor";
+    private static final String SORT_PARAM_NAME = "sort";
+
     private final LRAService lraService;
 
     public RecoveryCoordinator() {
@@ -148,11 +157,88 @@ public class RecoveryCoordinator {
     @Operation(summary = "List failed Long Running Actions",
             description = "Returns LRAs that have failed. " +
                     " Failure records are vital pieces of data needed to aid failure tracking and analysis " +
-                    " and are retained for inspection.")
+                    " and are retained for inspection. " +
+                    " If any of the limit, cursor or sort parameters is present then one page of the LRAs is returned, " +
+                    " with a Link header with rel=\"next\" if there may be more pages.")
+    @APIResponses({
+            @APIResponse(responseCode = "200",
+                    content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = LRAData.class))),
+            @APIResponse(responseCode = "400", description = "The limit, cursor or sort parameter is not valid",
+                    content = @Content(schema = @Schema(implementation = String.class)))
+    })
+    public Response getFailedLRAs(
+            @Parameter(name = LIMIT_PARAM_NAME, description = "The maximum number of LRAs to return, "
+                    + "0 means the maximum page size of the coordinator when paging and no limit otherwise")
+            @QueryParam(LIMIT_PARAM_NAME) @DefaultValue("0") int limit,
+            @Parameter(name = CURSOR_PARAM_NAME, description = "Return the page that follows the LRA that this cursor, "
+                    + "taken from the next link of the previous page, was created for")
+            @QueryParam(CURSOR_PARAM_NAME) @DefaultValue("") String cursor,
+            @Parameter(name = SORT_PARAM_NAME, description = "The order of the LRAs: id (the default when paging) "
+                    + "or startTime, prefixed with - for descending order")
+            @QueryParam(SORT_PARAM_NAME) @DefaultValue("") String sort,
+            @Context UriInfo uriInfo) {
+        if (limit == 0 && cursor.isEmpty() && sort.isEmpty()) {
+            return Response.ok(lraService.getFailedLRAs()).build();
+        }
+
+        int pageSize = limit == 0 ? Coordinator.MAX_PAGE_SIZE : Math.min(limit, Coordinator.MAX_PAGE_SIZE);
+        List<LRAData> page;
+
+        try {
+            page = lraService.getFailedPage(sort.isEmpty() ? "id" : sort, cursor, pageSize);
+        } catch (IllegalArgumentException e) {
+            String errorMsg = "Invalid page request: " + e.getMessage();
+            LRALogger.logger.debugf(errorMsg);
+            throw new WebApplicationException(errorMsg, e, Response.status(BAD_REQUEST).entity(errorMsg).build());
+        }
+
+        Response.ResponseBuilder builder = Response.ok(page);
+
+        if (page.size() == pageSize) {
+            // there may be more LRAs so link to the page that follows this one
+            builder.links(Link.fromUri(uriInfo.getRequestUriBuilder()
+                            .replaceQueryParam(CURSOR_PARAM_NAME, LRAService.getCursor(page.get(pageSize - 1)))
+                            .build())
+                    .rel("next")
+                    .build());
+        }
+
+        return builder.build();
+    }
+
+    @GET
+    @Path("failed/{LraId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Get a failed Long Running Action",
+            description = "Reads the failure record of an LRA, unlike the list of failed LRAs which is " +
+                    " served from a summary of the failure records")
+    @APIResponses({
+            @APIResponse(responseCode = "200",
+                    content = @Content(schema = @Schema(implementation = LRAData.class))),
+            @APIResponse(responseCode = "404", description = "There is no failure record for the LRA",
+                    content = @Content(schema = @Schema(implementation = String.class)))
+    })
+    public LRAData getFailedLRA(
+            @Parameter(name = "LraId", description = "The unique identifier of the LRA", required = true)
+            @PathParam("LraId") String lraId) throws NotFoundException {
+        try {
+            return lraService.getFailedLRA(new URI(lraId));
+        } catch (URISyntaxException e) {
+            String errorMsg = String.format("%s: %s", lraId, e.getMessage());
+            throw new NotFoundException(errorMsg, Response.status(NOT_FOUND).entity(errorMsg).build());
+        }
+    }
+
+    @GET
+    @Path("backlog")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "List the participants that recovery will retry",
+            description = "Returns the participants that could not be finished yet together with the number of " +
+                    " attempts and the time of the next attempt, the ones that are due soonest first")
     @APIResponse(responseCode = "200",
-            content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = LRAData.class)))
-    public List<LRAData> getFailedLRAs() {
-        return lraService.getFailedLRAs();
+            content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = ParticipantRetryData.class)))
+    public List<ParticipantRetryData> getRecoveryBacklog() {
+        return lraService.getRecoveryBacklog();
     }
 
     @DELETE
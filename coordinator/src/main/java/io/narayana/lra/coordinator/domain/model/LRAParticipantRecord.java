@@ -16,18 +16,18 @@ import io.narayana.lra.Current;
 import io.narayana.lra.LRAConstants;
 import io.narayana.lra.LRAData;
 import io.narayana.lra.coordinator.domain.service.LRAService;
+import io.narayana.lra.coordinator.internal.ParticipantClient;
+import io.narayana.lra.coordinator.internal.ParticipantResponse;
 import io.narayana.lra.logging.LRALogger;
 import jakarta.ws.rs.core.HttpHeaders;
 import org.eclipse.microprofile.lra.annotation.LRAStatus;
 import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
 import org.eclipse.microprofile.lra.annotation.ws.rs.LRA;
 
+import jakarta.ws.rs.HttpMethod;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.client.AsyncInvoker;
-import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.Entity;
-import jakarta.ws.rs.client.Invocation;
 import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.Link;
 import jakarta.ws.rs.core.MediaType;
@@ -40,16 +40,19 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static io.narayana.lra.LRAConstants.AFTER;
 import static io.narayana.lra.LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME;
-import static io.narayana.lra.LRAConstants.PARTICIPANT_TIMEOUT;
 import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_PARENT_CONTEXT_HEADER;
@@ -59,6 +62,8 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
     private static final String TYPE_NAME = "/StateManager/AbstractRecord/LRARecord";
     private static final String COMPENSATE_REL = "compensate";
     private static final String COMPLETE_REL = "complete";
+    // the path segment of the participant URL that a coordinator enlists a nested LRA with (see Coordinator)
+    private static final String NESTED_PATH = "/nested/";
 
     private URI lraId;
     private URI parentId;
@@ -78,6 +83,13 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
     private ParticipantStatus status;
     private boolean accepted;
     private LongRunningAction lra;
+    // the outcome of a participant call made ahead of BasicAction processing this record, see prepareOutcome
+    private Integer preparedOutcome;
+    private boolean preparedCompensate;
+    // the encoded state of the record as of the last call to packState and the field values it was encoded from
+    private byte[] packedState;
+    private Object[] packedFields;
+    private int packedType;
 
     public LRAParticipantRecord() {
     }
@@ -266,23 +278,116 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
         ReentrantLock lock = lraService.lockTransaction(lraId);
 
         try {
-            return tryDoEnd(compensate);
+            Integer outcome = preparedOutcome;
+
+            preparedOutcome = null;
+
+            if (outcome == null || preparedCompensate != compensate) {
+                if (!isRetryDue()) {
+                    return TwoPhaseOutcome.HEURISTIC_HAZARD; // backing off, a later recovery pass will try again
+                }
+
+                outcome = tryDoEnd(compensate);
+            }
+
+            return scheduleRetry(outcome);
         } finally {
             lock.unlock();
         }
     }
 
+    // recovery replays skip participants whose next attempt is not due yet
+    private boolean isRetryDue() {
+        if (!ParticipantRetryState.isEnabled() || lra == null || !lra.isReplay()) {
+            return true;
+        }
+
+        ParticipantRetryState retry = lraService.findRetryState(lraId, getRetryKey());
+
+        return retry == null || retry.isDue(System.currentTimeMillis());
+    }
+
+    // remember an attempt that did not finish the participant, or forget the schedule once it has finished,
+    // and make sure that recovery will visit an LRA whose participant did not finish
+    private int scheduleRetry(int outcome) {
+        if (outcome == TwoPhaseOutcome.HEURISTIC_HAZARD && lra != null) {
+            lraService.recoveryNeeded(lra);
+        }
+
+        if (ParticipantRetryState.isEnabled()) {
+            if (outcome == TwoPhaseOutcome.HEURISTIC_HAZARD) {
+                lraService.getRetryState(lraId, getRetryKey()).failed(System.currentTimeMillis());
+            } else {
+                lraService.clearRetryState(lraId, getRetryKey());
+            }
+        }
+
+        return outcome;
+    }
+
+    private String getRetryKey() {
+        return recoveryURI != null ? recoveryURI.toASCIIString() : participantPath;
+    }
+
+    /**
+     * Ask the participant to complete or compensate on behalf of the thread that is ending the LRA, and which holds
+     * the LRA lock, and remember the outcome. The next call to topLevelCommit or topLevelAbort returns the
+     * remembered outcome instead of calling the participant again.
+     * <p>
+     * The request is sent from the calling thread but the method does not wait for the response, which is handled
+     * by the given executor. The ending thread must wait for the returned future before BasicAction processes the
+     * record.
+     *
+     * @param compensate whether the participant should compensate or complete
+     * @param executor runs the handling of the response of the participant
+     * @return a future that completes, never exceptionally, once the outcome is known
+     */
+    CompletableFuture<Void> prepareOutcome(boolean compensate, Executor executor) {
+        CompletableFuture<Integer> outcome;
+
+        preparedCompensate = compensate;
+
+        try {
+            outcome = tryDoEnd(compensate, executor);
+        } catch (RuntimeException e) {
+            outcome = CompletableFuture.failedFuture(e);
+        }
+
+        return outcome.handle((res, failure) -> {
+            if (failure == null) {
+                preparedOutcome = res;
+            } else if (LRALogger.logger.isDebugEnabled()) {
+                // leave it to BasicAction to call the participant again
+                LRALogger.logger.debugf(failure, "LRAParticipantRecord.prepareOutcome failed for participant %s", participantPath);
+            }
+
+            return null;
+        });
+    }
+
     private int tryDoEnd(boolean compensate) {
+        try {
+            return tryDoEnd(compensate, null).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /*
+     * Everything up to the request to the participant runs on the calling thread. The response is then handled
+     * by the executor or, if the executor is null, by the calling thread once the response has arrived.
+     */
+    private CompletableFuture<Integer> tryDoEnd(boolean compensate, Executor executor) {
         URI endPath;
-        Client client = null;
 
         if (LRALogger.logger.isTraceEnabled()) {
             trace_progress("finishing");
         }
 
         if (isFinished()) {
-            return atEnd(status == ParticipantStatus.FailedToComplete || status == ParticipantStatus.FailedToCompensate
-                    ? TwoPhaseOutcome.FINISH_ERROR : TwoPhaseOutcome.FINISH_OK);
+            return CompletableFuture.completedFuture(atEnd(
+                    status == ParticipantStatus.FailedToComplete || status == ParticipantStatus.FailedToCompensate
+                            ? TwoPhaseOutcome.FINISH_ERROR : TwoPhaseOutcome.FINISH_OK));
         }
 
         if (ParticipantStatus.Compensating.equals(status)) {
@@ -290,12 +395,12 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
         }
 
         if (compensateURI == null) {
-            return atEnd(TwoPhaseOutcome.FINISH_OK);
+            return CompletableFuture.completedFuture(atEnd(TwoPhaseOutcome.FINISH_OK));
         }
 
         if (compensate) {
             if (isCompensated()) {
-                return atEnd(TwoPhaseOutcome.FINISH_OK); // the participant has already compensated
+                return CompletableFuture.completedFuture(atEnd(TwoPhaseOutcome.FINISH_OK)); // the participant has already compensated
             }
 
             endPath = compensateURI; // we are going to ask the participant to compensate
@@ -304,7 +409,7 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
             if (isCompelete() || completeURI == null) {
                 status = ParticipantStatus.Completed;
 
-                return atEnd(TwoPhaseOutcome.FINISH_OK); // the participant has already completed
+                return CompletableFuture.completedFuture(atEnd(TwoPhaseOutcome.FINISH_OK)); // the participant has already completed
             }
 
             endPath = completeURI;  // we are going to ask the participant to complete
@@ -322,32 +427,49 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
             int twoPhaseOutcome = retryGetEndStatus(endPath, compensate);
 
             if (twoPhaseOutcome != -1) {
-                return atEnd(twoPhaseOutcome);
+                return CompletableFuture.completedFuture(atEnd(twoPhaseOutcome));
             }
         } else {
             httpStatus = tryLocalEndInvocation(endPath); // see if participant is in the same JVM
         }
 
-        if (httpStatus == -1) {
-            // the local invocation was not made so fallback to using JAX-RS
+        if (httpStatus != -1) {
+            return CompletableFuture.completedFuture(endOutcome(compensate, endPath, httpStatus));
+        }
 
-            if (LRALogger.logger.isTraceEnabled()) {
-                trace_progress("notifying participant");
-            }
+        // the local invocation was not made so fallback to using JAX-RS
+        return sendEnd(compensate, endPath, executor);
+    }
 
-            try {
-                // ask the participant to complete or compensate
-                client = ClientBuilder.newClient();
-                Response response = client.target(endPath)
-                        .request()
-                        .header(LRA_HTTP_CONTEXT_HEADER, lraId.toASCIIString())
-                        .header(LRA_HTTP_PARENT_CONTEXT_HEADER, parentId) // make the context available to participants
-                        .header(LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString())
-                        .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData)
-                        .async()
-                        .put(Entity.text(""))
-                        .get(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS);
+    private CompletableFuture<Integer> sendEnd(boolean compensate, URI endPath, Executor executor) {
+        if (LRALogger.logger.isTraceEnabled()) {
+            trace_progress("notifying participant");
+        }
+
+        // ask the participant to complete or compensate
+        CompletableFuture<ParticipantResponse> request = ParticipantClient.invokeAsync(HttpMethod.PUT, endPath, headers(
+                LRA_HTTP_CONTEXT_HEADER, lraId.toASCIIString(),
+                LRA_HTTP_PARENT_CONTEXT_HEADER, parentId, // make the context available to participants
+                LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString(),
+                NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData), "");
+
+        if (executor == null) {
+            // wait for the response so that it is handled on the calling thread
+            request.exceptionally(failure -> null).join();
+
+            return request.handle((response, failure) -> endResponse(compensate, endPath, response, failure));
+        }
 
+        return request.handleAsync((response, failure) -> endResponse(compensate, endPath, response, failure),
+                executor);
+    }
+
+    private int endResponse(boolean compensate, URI endPath, ParticipantResponse response, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+        int httpStatus = -1;
+
+        try {
+            if (cause == null) {
                 httpStatus = response.getStatus();
 
                 accepted = httpStatus == Response.Status.ACCEPTED.getStatusCode();
@@ -364,27 +486,29 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                 }
 
                 if (response.hasEntity()) {
-                    responseData = response.readEntity(String.class);
-                }
-            } catch (Exception e) {
-                if (LRALogger.logger.isInfoEnabled()) {
-                    LRALogger.logger.infof("LRAParticipantRecord.doEnd(%s) HTTP PUT at %s failed for LRA %s (reason: %s)",
-                            compensate ? "compensate" : "complete", endPath, lraId, e.getMessage());
-                    if (LRALogger.logger.isDebugEnabled()) {
-                        LRALogger.logger.debug("LRAParticipantRecord.doEnd stacktrace", e);
-                    }
-                }
-            } finally {
-                if (LRALogger.logger.isTraceEnabled()) {
-                    trace_progress("notified participant");
+                    responseData = response.getEntity();
                 }
+            }
+        } catch (RuntimeException e) {
+            cause = e;
+        } finally {
+            if (LRALogger.logger.isTraceEnabled()) {
+                trace_progress("notified participant");
+            }
+        }
 
-                if (client != null) {
-                    client.close();
-                }
+        if (cause != null && LRALogger.logger.isInfoEnabled()) {
+            LRALogger.logger.infof("LRAParticipantRecord.doEnd(%s) HTTP PUT at %s failed for LRA %s (reason: %s)",
+                    compensate ? "compensate" : "complete", endPath, lraId, cause.getMessage());
+            if (LRALogger.logger.isDebugEnabled()) {
+                LRALogger.logger.debug("LRAParticipantRecord.doEnd stacktrace", cause);
             }
         }
 
+        return endOutcome(compensate, endPath, httpStatus);
+    }
+
+    private int endOutcome(boolean compensate, URI endPath, int httpStatus) {
         if (responseData != null &&
                 httpStatus == Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()) {
             // the body should contain a valid ParticipantStatus
@@ -443,26 +567,39 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
         return status == ParticipantStatus.FailedToCompensate || status == ParticipantStatus.FailedToComplete;
     }
 
+    /*
+     * A participant that is a nested LRA is ended through its coordinator, which ends the participants of the
+     * nested LRA in turn (under the lock of the nested LRA when it is in this JVM), so it keeps its place in the
+     * order in which the participants of the parent are ended. Participants without end URIs have nothing to do.
+     */
+    boolean canEndConcurrently() {
+        return (compensateURI != null || completeURI != null)
+                && !isNestedLRA(compensateURI) && !isNestedLRA(completeURI);
+    }
+
+    private boolean isNestedLRA(URI endPath) {
+        return endPath != null && (endPath.getPath().contains(NESTED_PATH) || extractParentLRA(endPath) != null);
+    }
+
     private boolean afterLRARequest(URI target, String payload) {
 
-        try (Client client = ClientBuilder.newClient()) {
-            Invocation.Builder builder = client.target(target)
-                    .request()
-                    .header(LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString())
-                    .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData);
+        Map<String, String> headers = headers(
+                LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString(),
+                NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData);
 
-            if (target.equals(afterURI)) {
-                builder.header(LRA.LRA_HTTP_ENDED_CONTEXT_HEADER, lra.getId().toASCIIString());
-                if (lra.getParentId() != null) {
-                    builder.header(LRA_HTTP_PARENT_CONTEXT_HEADER, lra.getParentId().toASCIIString());
-                }
-            } else {
-                builder.header(LRA.LRA_HTTP_CONTEXT_HEADER, lra.getId().toASCIIString());
+        if (target.equals(afterURI)) {
+            headers.put(LRA.LRA_HTTP_ENDED_CONTEXT_HEADER, lra.getId().toASCIIString());
+            if (lra.getParentId() != null) {
+                headers.put(LRA_HTTP_PARENT_CONTEXT_HEADER, lra.getParentId().toASCIIString());
             }
+        } else {
+            headers.put(LRA.LRA_HTTP_CONTEXT_HEADER, lra.getId().toASCIIString());
+        }
 
-            Future<Response> responseFuture = target.equals(forgetURI) ? builder.async().delete()
-                    : builder.async().put(Entity.text(payload));
-            Response response = responseFuture.get(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS);
+        try {
+            ParticipantResponse response = target.equals(forgetURI)
+                    ? ParticipantClient.invoke(HttpMethod.DELETE, target, headers, null)
+                    : ParticipantClient.invoke(HttpMethod.PUT, target, headers, payload);
 
             if (response.getStatus() == 200) {
                 if (LRALogger.logger.isTraceEnabled()) {
@@ -609,19 +746,14 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
             }
         } else if (statusURI != null) {
             // it is a standard participant - check the status URI
-            Response response;
-
-            try (Client client = ClientBuilder.newClient()) {
-                // since this method is called from the recovery thread do not block
-                response = client.target(statusURI)//.path(getLRAId(lraId))
-                        .request()
-                        .header(LRA_HTTP_CONTEXT_HEADER, lraId.toASCIIString())
-                        .header(LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString())
-                        .header(LRA_HTTP_PARENT_CONTEXT_HEADER, parentId)
-                        .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData)
-                        .async()
-                        .get()
-                        .get(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS); // if the attempt times out the catch block below will return a heuristic
+            // since this method is called from the recovery thread do not block
+            // (if the attempt times out the catch block below will return a heuristic)
+            try {
+                ParticipantResponse response = ParticipantClient.invoke(HttpMethod.GET, statusURI, headers(
+                        LRA_HTTP_CONTEXT_HEADER, lraId.toASCIIString(),
+                        LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString(),
+                        LRA_HTTP_PARENT_CONTEXT_HEADER, parentId,
+                        NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData), null);
 
                 // 200 and 410 are the only valid response code for reporting the participant status
                 if (response.getStatus() == Response.Status.GONE.getStatusCode()) {
@@ -643,7 +775,7 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                 } else if (response.getStatus() == Response.Status.OK.getStatusCode() &&
                         response.hasEntity()) {
                     // the participant is available again and has reported its status
-                    status = ParticipantStatus.valueOf(response.readEntity(String.class));
+                    status = ParticipantStatus.valueOf(response.getEntity());
 
                     switch (status) {
                         case Completed:
@@ -690,6 +822,19 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
         return -1;
     }
 
+    // build the headers of a participant request from name/value pairs, headers without a value are not sent
+    private static Map<String, String> headers(Object... namesAndValues) {
+        Map<String, String> headers = new HashMap<>();
+
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (namesAndValues[i + 1] != null) {
+                headers.put((String) namesAndValues[i], namesAndValues[i + 1].toString());
+            }
+        }
+
+        return headers;
+    }
+
     private Future<Response> getAsyncResponse(WebTarget target, String method, AsyncInvoker asyncInvoker, String cData) {
         String queryString = target.getUri().getQuery();
 
@@ -792,20 +937,13 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
     }
 
     boolean forget() {
-        Client client = null;
-
         if (forgetURI != null) {
             try {
-                client = ClientBuilder.newClient();
-                Response response = client.target(forgetURI)//.path(getLRAId(lraId))
-                    .request()
-                    .header(LRA_HTTP_CONTEXT_HEADER, lraId)
-                    .header(LRA_HTTP_RECOVERY_HEADER, recoveryURI)
-                    .header(LRA_HTTP_PARENT_CONTEXT_HEADER, parentId)
-                    .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData)
-                    .async()
-                    .delete()
-                    .get(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS);
+                ParticipantResponse response = ParticipantClient.invoke(HttpMethod.DELETE, forgetURI, headers(
+                        LRA_HTTP_CONTEXT_HEADER, lraId,
+                        LRA_HTTP_RECOVERY_HEADER, recoveryURI,
+                        LRA_HTTP_PARENT_CONTEXT_HEADER, parentId,
+                        NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData), null);
 
                 if (response.getStatus() == Response.Status.OK.getStatusCode()) {
                     forgetURI = null; // succeeded so dispose of the endpoint
@@ -825,9 +963,6 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                     trace_progress("forget");
                 }
                 Current.pop();
-                if (client != null) {
-                    client.close();
-                }
             }
 
         } else {
@@ -875,6 +1010,43 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
         return true;
     }
 
+    /*
+     * Write the state of this record to os as a single block. The encoded state is kept and is reused by
+     * subsequent calls for as long as none of the persistent fields has been assigned a different value,
+     * so that saving an LRA only re-encodes the participants that have changed since the previous save.
+     * The fields are compared by reference: assigning an equal but distinct value just causes a re-encode.
+     */
+    boolean packState(OutputObjectState os, int t) throws IOException {
+        Object[] fields = {lraId, compensateURI, recoveryURI, completeURI, afterURI, statusURI, forgetURI,
+                status, participantPath, compensatorData};
+
+        if (packedState == null || packedType != t || !isSameState(fields)) {
+            OutputObjectState state = new OutputObjectState();
+
+            if (!save_state(state, t)) {
+                return false;
+            }
+
+            packedState = state.buffer();
+            packedFields = fields;
+            packedType = t;
+        }
+
+        os.packBytes(packedState);
+
+        return true;
+    }
+
+    private boolean isSameState(Object[] fields) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != packedFields[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     @Override
     public boolean restore_state(InputObjectState os, int t) {
         if (super.restore_state(os, t)) {
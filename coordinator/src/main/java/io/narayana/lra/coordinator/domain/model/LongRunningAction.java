@@ -21,6 +21,8 @@ import io.narayana.lra.LRAConstants;
 import io.narayana.lra.LRAData;
 import io.narayana.lra.logging.LRALogger;
 import io.narayana.lra.coordinator.domain.service.LRAService;
+import io.narayana.lra.coordinator.internal.HashedTimingWheel;
+import io.narayana.lra.coordinator.internal.MonitoredExecutor;
 
 import org.eclipse.microprofile.lra.annotation.LRAStatus;
 
@@ -40,17 +42,49 @@ import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 public class LongRunningAction extends BasicAction {
     private static final String LRA_TYPE = "/StateManager/BasicAction/LongRunningAction";
-    private static final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(10);
+    // LRAs that reach their time limit are cancelled by a bounded pool of workers
+    private static final MonitoredExecutor cancellationExecutor = new MonitoredExecutor("lra-cancellation",
+            Integer.getInteger("lra.coordinator.timeout.workers", 10),
+            Integer.getInteger("lra.coordinator.timeout.queue.size", 10000));
+    // how long to wait before trying to queue a cancellation again if the queue was full
+    private static final long CANCELLATION_RETRY_DELAY = Long.getLong("lra.coordinator.timeout.retry.delay", 1000);
+    // the default maximum number of participants of an LRA that are asked to complete or compensate concurrently
+    // (see setTerminationParallelism), 1 calls them one after the other in reverse order of enlistment
+    private static final int TERMINATION_PARALLELISM = Integer.getInteger("lra.coordinator.termination.parallelism", 1);
+    // threads shared by all LRAs for handling the responses of participants that are ended concurrently, when they
+    // are all busy the thread that received the response handles it itself
+    private static final ExecutorService terminationExecutor = new ThreadPoolExecutor(0,
+            Integer.getInteger("lra.coordinator.termination.threads", 50), 60L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), new ThreadPoolExecutor.CallerRunsPolicy());
+    // time limits are tracked by a timing wheel, the resolution and number of buckets are configurable.
+    // The timer thread only detects expiry and hands the cancellation over to the cancellationExecutor
+    private static final HashedTimingWheel timer = new HashedTimingWheel("lra-timer",
+            Long.getLong("lra.coordinator.timer.tick", 10), TimeUnit.MILLISECONDS,
+            Integer.getInteger("lra.coordinator.timer.wheel.size", 512), Runnable::run);
     private static final String DEACTIVATE_REASON = "deactivate";
+    // marks a pending list where each record is saved as a separate block (the record type is never this large)
+    private static final int RECORD_BLOCK_FORMAT = 0x4C524131;
+    // how long (in milliseconds) a join waits for the LRA lock before giving up, a join must not wait
+    // for the whole duration of a close or cancel (the LRA would no longer accept participants anyway)
+    private static final long ENLIST_LOCK_WAIT = Long.getLong("lra.coordinator.enlist.lock.wait", 100);
     private URI id;
     private URI parentId;
     private String clientId;
@@ -58,9 +92,29 @@ public class LongRunningAction extends BasicAction {
     private LRAStatus status;
     private LocalDateTime startTime;
     private LocalDateTime finishTime;
-    private ScheduledFuture<?> scheduledAbort;
+    // the pending time limit, replaced atomically because the timer thread reschedules it without the LRA lock
+    private final AtomicReference<HashedTimingWheel.Timeout> scheduledAbort = new AtomicReference<>();
+    // the data of the LRA as of the last call to getLRAData, replaced whenever the state it was built from changes
+    private volatile LRADataSnapshot snapshot;
+    // the maximum number of participants of this LRA that are ended concurrently, it is not saved with the LRA
+    private volatile int terminationParallelism = Math.max(1, TERMINATION_PARALLELISM);
     private final LRAService lraService;
     LRAParentAbstractRecord par;
+    // group commit of enlistments: each join that adds participants queues an enlistment (under the LRA lock)
+    // and returns once a write of the LRA that includes it is durable. The outcome of an enlistment and the
+    // flushing flag are guarded by durability
+    private final Object durability = new Object();
+    private final Queue<Enlistment> pendingEnlistments = new ConcurrentLinkedQueue<>();
+    private boolean flushing;
+    private final LongAdder enlistmentWrites = new LongAdder();
+    // indexes of the participant records on the pending, prepared, heuristic and failed lists. BasicAction moves
+    // records between the lists and drops records that have finished so the indexes are rebuilt whenever the
+    // total size of the lists no longer matches the number of records that the indexes were built from
+    private final Map<URI, LRAParticipantRecord> participantsByRecoveryUrl = new ConcurrentHashMap<>();
+    private final Map<String, LRAParticipantRecord> participantsByCompensator = new ConcurrentHashMap<>();
+    private volatile int indexedRecords;
+    private boolean duplicateParticipantKeys;
+    private final LongAdder participantIndexRebuilds = new LongAdder();
 
     public LongRunningAction(LRAService lraService, String baseUrl, LongRunningAction parent, String clientId) throws URISyntaxException {
         super(new Uid());
@@ -118,14 +172,31 @@ public class LongRunningAction extends BasicAction {
     /**
      * Creating {@link LRAData} from the current {@link LongRunningAction} state.
      * The data are immutable and represents the current state of the LRA transaction.
+     * The same instance is returned until the state of the LRA changes so callers must not modify it.
      *
      * @return  immutable {@link LRAData} representing the current state of the LRA transaction
      */
     public LRAData getLRAData() {
-        return new LRAData(id, clientId, status, isTopLevel(), isRecovering(),
-                startTime.toInstant(ZoneOffset.UTC).toEpochMilli(),
-                finishTime == null ? 0L : finishTime.toInstant(ZoneOffset.UTC).toEpochMilli(),
-                getHttpStatus());
+        LRADataSnapshot current = snapshot;
+
+        if (current != null && current.isCurrent()) {
+            return current.data; // nothing that the data depends on has changed
+        }
+
+        current = new LRADataSnapshot();
+
+        if (current.isCurrent()) {
+            snapshot = current; // the state did not change while the data was being built
+        }
+
+        return current.data;
+    }
+
+    /**
+     * @return the time, in milliseconds since the epoch, when the LRA was started
+     */
+    public long getStartTimeMillis() {
+        return startTime == null ? 0L : startTime.toInstant(ZoneOffset.UTC).toEpochMilli();
     }
 
     public boolean save_state(OutputObjectState os, int ot) {
@@ -166,7 +237,18 @@ public class LongRunningAction extends BasicAction {
         return true;
     }
 
+    /*
+     * Each record of the list is saved as a block of bytes preceded by its type. Participant records keep
+     * their encoded block between saves (see LRAParticipantRecord#packState) so the cost of saving an LRA
+     * that is accumulating participants is dominated by copying, rather than encoding, the unchanged ones.
+     */
     private boolean save_list(OutputObjectState os, int ot, RecordList list) {
+        try {
+            os.packInt(RECORD_BLOCK_FORMAT);
+        } catch (IOException e) {
+            return false;
+        }
+
         if (list != null && list.size() > 0) {
             AbstractRecord first, temp;
 
@@ -182,8 +264,18 @@ public class LongRunningAction extends BasicAction {
                 try {
                     os.packInt(temp.typeIs());
 
-                    if (!temp.save_state(os, ot)) {
-                        return false;
+                    if (temp instanceof LRAParticipantRecord) {
+                        if (!((LRAParticipantRecord) temp).packState(os, ot)) {
+                            return false;
+                        }
+                    } else {
+                        OutputObjectState state = new OutputObjectState();
+
+                        if (!temp.save_state(state, ot)) {
+                            return false;
+                        }
+
+                        os.packBytes(state.buffer());
                     }
                 } catch (IOException e) {
                     return false;
@@ -212,10 +304,25 @@ public class LongRunningAction extends BasicAction {
         int record_type = RecordType.NONE_RECORD;
 
         try {
-            while ((record_type = os.unpackInt()) != RecordType.NONE_RECORD) {
+            record_type = os.unpackInt();
+
+            // logs written before records were saved as blocks hold the state of each record inline
+            boolean blocks = record_type == RECORD_BLOCK_FORMAT;
+
+            if (blocks) {
+                record_type = os.unpackInt();
+            }
+
+            for (; record_type != RecordType.NONE_RECORD; record_type = os.unpackInt()) {
                 AbstractRecord record = AbstractRecord.create(record_type);
 
-                if (record == null || !record.restore_state(os, ot) || !list.insert(record)) {
+                if (record == null) {
+                    return false;
+                }
+
+                InputObjectState state = blocks ? new InputObjectState(get_uid(), type(), os.unpackBytes()) : os;
+
+                if (!record.restore_state(state, ot) || !list.insert(record)) {
                     return false;
                 }
 
@@ -296,7 +403,7 @@ public class LongRunningAction extends BasicAction {
             clientId = os.unpackString();
             startTime = os.unpackBoolean() ? LocalDateTime.ofInstant(Instant.ofEpochMilli(os.unpackLong()), ZoneOffset.UTC) : null;
             finishTime = os.unpackBoolean() ? LocalDateTime.ofInstant(Instant.ofEpochMilli(os.unpackLong()), ZoneOffset.UTC) : null;
-            status = LRAStatus.valueOf(os.unpackString());
+            setStatus(LRAStatus.valueOf(os.unpackString()));
 
             /*
              * If the time limit has already been reached then the difference between now and the scheduled
@@ -312,7 +419,7 @@ public class LongRunningAction extends BasicAction {
                     }
 
                     if (status == LRAStatus.Active) {
-                        status = LRAStatus.Cancelling; // transition from Active to Cancelling
+                        setStatus(LRAStatus.Cancelling); // transition from Active to Cancelling
                     }
                 } else {
                     if (LRALogger.logger.isDebugEnabled()) {
@@ -335,6 +442,8 @@ public class LongRunningAction extends BasicAction {
 
             return false;
         } finally {
+            snapshot = null; // the id, client id and parent are not part of the snapshot check
+
             if (LRALogger.logger.isTraceEnabled()) {
                 trace_progress("restored");
             }
@@ -367,6 +476,20 @@ public class LongRunningAction extends BasicAction {
         return result;
     }
 
+    /**
+     * @return the timer that enforces LRA time limits, it is exposed for monitoring its metrics
+     */
+    public static HashedTimingWheel getTimeLimitTimer() {
+        return timer;
+    }
+
+    /**
+     * @return the executor that cancels LRAs which reached their time limit, it is exposed for monitoring its metrics
+     */
+    public static MonitoredExecutor getCancellationExecutor() {
+        return cancellationExecutor;
+    }
+
     public static String getType() {
         return LRA_TYPE;
     }
@@ -396,6 +519,32 @@ public class LongRunningAction extends BasicAction {
         return status;
     }
 
+    /**
+     * Set how many participants of this LRA may be asked to complete or compensate at the same time when the LRA
+     * is closed or cancelled. Participants that are nested LRAs are always ended one after the other. The value
+     * only applies to this instance and is not saved with the LRA, recovery ends participants one at a time.
+     *
+     * @param terminationParallelism the maximum number of participants that are ended concurrently,
+     *                               1 ends them one after the other in reverse order of enlistment
+     */
+    public void setTerminationParallelism(int terminationParallelism) {
+        this.terminationParallelism = Math.max(1, terminationParallelism);
+    }
+
+    /**
+     * @return the maximum number of participants of this LRA that are ended concurrently
+     */
+    public int getTerminationParallelism() {
+        return terminationParallelism;
+    }
+
+    /**
+     * @return true if this instance was re-created from its log by recovery in order to replay the end of the LRA
+     */
+    public boolean isReplay() {
+        return false;
+    }
+
     // a recovering LRA is one that is in state Cancelling or Closing or has pending listener notifications
     // which are maintained on the heuristic list
     public boolean isRecovering() {
@@ -490,6 +639,8 @@ public class LongRunningAction extends BasicAction {
         int res = status();
         boolean nested = !isTopLevel();
 
+        abandonEnlistments(); // the participants of joins that have not been acknowledged must not be ended
+
         if (status == LRAStatus.Active) {
             updateState(cancel ? LRAStatus.Cancelling : LRAStatus.Closing); // can throw ServiceUnavailableException
         } else if (isFinished()) {
@@ -499,9 +650,10 @@ public class LongRunningAction extends BasicAction {
             return res;
         }
 
-        if (scheduledAbort != null) {
-            scheduledAbort.cancel(false);
-            scheduledAbort = null;
+        HashedTimingWheel.Timeout pendingAbort = scheduledAbort.getAndSet(null);
+
+        if (pendingAbort != null) {
+            pendingAbort.cancel();
         }
 
         // nested compensators need to be remembered in case the enclosing LRA decides to cancel
@@ -538,6 +690,7 @@ public class LongRunningAction extends BasicAction {
                     if (LRALogger.logger.isTraceEnabled()) {
                         trace_progress("phase2Commit for nested cancel");
                     }
+                    endParticipantsInParallel(preparedList);
                     super.phase2Commit(true);
 
                     res = status();
@@ -576,6 +729,7 @@ public class LongRunningAction extends BasicAction {
                 if (LRALogger.logger.isTraceEnabled()) {
                     trace_progress("doEnd with cancel");
                 }
+                endParticipantsInParallel(preparedList);
                 super.phase2Commit(true);
                 res = super.status();
             } else {
@@ -586,6 +740,7 @@ public class LongRunningAction extends BasicAction {
                 if (LRALogger.logger.isTraceEnabled()) {
                     trace_progress("doEnd with close");
                 }
+                endParticipantsInParallel(pendingList);
                 res = super.End(true);
             }
         }
@@ -660,7 +815,7 @@ public class LongRunningAction extends BasicAction {
     // return true if the state was updated
     protected boolean updateState(LRAStatus nextState, boolean save) {
         if (status != nextState) {
-            status = nextState; // we trust that nextState is reachable from the current one
+            setStatus(nextState); // we trust that nextState is reachable from the current one
 
             if (save && (pendingList != null && pendingList.size() != 0)) {
                 if (!deactivate()) {
@@ -674,6 +829,38 @@ public class LongRunningAction extends BasicAction {
         return false;
     }
 
+    // the LRAData of the LRA together with the state that it was built from
+    private final class LRADataSnapshot {
+        private final LRAStatus status = LongRunningAction.this.status;
+        private final LocalDateTime startTime = LongRunningAction.this.startTime;
+        private final LocalDateTime finishTime = LongRunningAction.this.finishTime;
+        private final boolean recovering = isRecovering();
+        private final int actionStatus = status();
+        private final LRAData data = new LRAData(id, clientId, status, isTopLevel(), recovering,
+                getStartTimeMillis(),
+                finishTime == null ? 0L : finishTime.toInstant(ZoneOffset.UTC).toEpochMilli(),
+                getHttpStatus());
+
+        private boolean isCurrent() {
+            return status == LongRunningAction.this.status
+                    && startTime == LongRunningAction.this.startTime
+                    && finishTime == LongRunningAction.this.finishTime
+                    && recovering == isRecovering()
+                    && actionStatus == status();
+        }
+    }
+
+    // every change of status, after construction, goes through here so that the status index of the LRAService is kept current
+    private void setStatus(LRAStatus nextStatus) {
+        LRAStatus previous = status;
+
+        status = nextStatus;
+
+        if (previous != nextStatus) {
+            lraService.statusChanged(this, previous);
+        }
+    }
+
     protected void checkParticipant(RecordList participants) {
         RecordListIterator i = new RecordListIterator(participants);
         AbstractRecord r;
@@ -773,38 +960,309 @@ public class LongRunningAction extends BasicAction {
     public LRAParticipantRecord enlistParticipant(URI coordinatorUrl, String participantUrl, String recoveryUrlBase,
                                                   long timeLimit, String compensatorData, String version)
             throws UnsupportedEncodingException {
-        ReentrantLock lock = tryLockTransaction();
+        ReentrantLock lock = lraService.tryLockTransaction(getId(), ENLIST_LOCK_WAIT, TimeUnit.MILLISECONDS);
+        LRAParticipantRecord participant;
+        Enlistment enlistment;
+
         if (lock == null) {
             String reason = LRALogger.i18nLogger.warn_enlistment();
             LRALogger.logger.warn(reason);
             throw new ServiceUnavailableException(reason);
         }
-        else {
-            try {
-                LRAParticipantRecord participant = findLRAParticipant(participantUrl, false);
-                if (participant != null) {
-                    participant.setCompensatorData(compensatorData);
-                    return participant; // must have already been enlisted
-                }
+
+        try {
+            participant = findLRAParticipant(participantUrl, false);
+            if (participant != null) {
+                participant.setCompensatorData(compensatorData);
+                // must have already been enlisted, but the join that enlisted it may still be waiting for its write
+                enlistment = findPendingEnlistment(participant);
+            } else {
                 participant = doEnlistParticipant(coordinatorUrl, participantUrl, recoveryUrlBase, timeLimit,
                         compensatorData, version);
-                if (participant != null) {
-                    // need to remember that there is a new participant
-                    if (deactivate()) { // if it fails the superclass will have logged a warning
-                        savedIntentionList = true; // need this clean up if the LRA times out
+                if (participant == null) {
+                    throw new ServiceUnavailableException(LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON));
+                }
+                enlistment = new Enlistment(List.of(participant));
+                pendingEnlistments.add(enlistment);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // need to remember that there is a new participant
+        awaitDurable(enlistment);
+
+        return participant;
+    }
+
+    /**
+     * Enlist several participants under one acquisition of the LRA lock and make them durable with a single
+     * write of the LRA. If one of the participants cannot be enlisted then none of the participants that this
+     * call added remain enlisted.
+     *
+     * @param coordinatorUrl the id of this LRA
+     * @param participantUrls the link header (or URL) of each participant
+     * @param joinRejected tells, while the LRA is locked, whether a participant may no longer join the LRA
+     * @param recoveryUrlBase the base of the recovery URL of each participant
+     * @param timeLimit the time limit that the participants can guarantee that they can compensate for
+     * @param compensatorData the data of each participant, a null list or a null entry means no data
+     * @param version the API version of the participants
+     * @return the participant records in the same order as the participant URLs
+     */
+    public List<LRAParticipantRecord> enlistParticipants(URI coordinatorUrl, List<String> participantUrls,
+                                                         Predicate<String> joinRejected,
+                                                         String recoveryUrlBase, long timeLimit,
+                                                         List<String> compensatorData, String version) {
+        ReentrantLock lock = lraService.tryLockTransaction(getId(), ENLIST_LOCK_WAIT, TimeUnit.MILLISECONDS);
+        List<LRAParticipantRecord> participants = new ArrayList<>(participantUrls.size());
+        List<LRAParticipantRecord> added = new ArrayList<>();
+        List<Enlistment> enlistments = new ArrayList<>();
+
+        if (lock == null) {
+            String reason = LRALogger.i18nLogger.warn_enlistment();
+            LRALogger.logger.warn(reason);
+            throw new ServiceUnavailableException(reason);
+        }
+
+        try {
+            boolean enlisted = false;
+
+            try {
+                for (int i = 0; i < participantUrls.size(); i++) {
+                    String data = compensatorData == null ? null : compensatorData.get(i);
+
+                    if (joinRejected.test(participantUrls.get(i))) {
+                        throw tooLateToJoin();
+                    }
+
+                    LRAParticipantRecord participant = findLRAParticipant(participantUrls.get(i), false);
+
+                    if (participant != null) {
+                        participant.setCompensatorData(data); // must have already been enlisted
+
+                        Enlistment earlier = findPendingEnlistment(participant);
+
+                        if (earlier != null && !enlistments.contains(earlier)) {
+                            enlistments.add(earlier); // but its join may still be waiting for its write
+                        }
                     } else {
-                        throw new ServiceUnavailableException(LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON));
+                        participant = doEnlistParticipant(coordinatorUrl, participantUrls.get(i), recoveryUrlBase,
+                                timeLimit, data, version);
+
+                        if (participant == null) {
+                            throw new ServiceUnavailableException(LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON));
+                        }
+
+                        added.add(participant);
                     }
-                } else {
-                    throw new ServiceUnavailableException(LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON));
+
+                    if (participant.getRecoveryURI() == null) {
+                        // probably already closing or cancelling
+                        throw tooLateToJoin();
+                    }
+
+                    participants.add(participant);
+                }
+
+                enlisted = true;
+            } finally {
+                if (!enlisted) {
+                    added.forEach(this::discardParticipant);
                 }
-                return participant;
             }
-            finally {
-                lock.unlock();
+
+            // if every participant had already been enlisted there is nothing new to write
+            if (!added.isEmpty()) {
+                Enlistment enlistment = new Enlistment(added);
+
+                pendingEnlistments.add(enlistment);
+                enlistments.add(enlistment);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // one write covers the whole batch (and any concurrent joins)
+        enlistments.forEach(this::awaitDurable);
+
+        return participants;
+    }
+
+    private WebApplicationException tooLateToJoin() {
+        return new WebApplicationException(Response.status(Response.Status.PRECONDITION_FAILED)
+                .entity(LRALogger.i18nLogger.error_tooLateToJoin(id.toASCIIString(), String.valueOf(getLRAStatus())))
+                .build());
+    }
+
+    /*
+     * Wait until the state of the LRA containing the enlistment has been written. Concurrent joins are
+     * coalesced: one of the waiting threads becomes the leader and writes the LRA once for all enlistments
+     * made so far, the others wait for that write and only lead a new one if their own enlistment arrived too
+     * late to be included in it. If the write fails the participants of the enlistments that it covered are
+     * removed again, so a join that is refused leaves nothing enlisted.
+     */
+    private void awaitDurable(Enlistment enlistment) {
+        boolean interrupted = false;
+
+        if (enlistment == null) {
+            return; // the participants were already durable
+        }
+
+        try {
+            while (true) {
+                synchronized (durability) {
+                    switch (enlistment.outcome) {
+                        case DURABLE:
+                            return;
+                        case FAILED:
+                            throw new ServiceUnavailableException(LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON));
+                        case BUSY:
+                            throw new ServiceUnavailableException(LRALogger.i18nLogger.warn_enlistment());
+                        case ABANDONED:
+                            throw tooLateToJoin();
+                        default:
+                            break;
+                    }
+
+                    if (flushing) {
+                        try {
+                            durability.wait();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                        continue;
+                    }
+
+                    flushing = true;
+                }
+
+                List<Enlistment> covered = List.of();
+                Enlistment.Outcome outcome = Enlistment.Outcome.FAILED;
+
+                try {
+                    // like the join itself, do not wait for the whole duration of a close or cancel
+                    ReentrantLock lock = lraService.tryLockTransaction(getId(), ENLIST_LOCK_WAIT, TimeUnit.MILLISECONDS);
+
+                    if (lock == null) {
+                        // fail the joins that are waiting for a write, the next thread that holds the lock removes
+                        // their participants (see discardFailedEnlistments)
+                        covered = new ArrayList<>(pendingEnlistments);
+                        outcome = Enlistment.Outcome.BUSY;
+                        LRALogger.logger.warn(LRALogger.i18nLogger.warn_enlistment());
+                        continue;
+                    }
+
+                    try {
+                        discardFailedEnlistments();
+                        covered = new ArrayList<>(pendingEnlistments);
+
+                        if (isFinished()) {
+                            // ending the LRA refuses the joins that are waiting so there should be none left
+                            outcome = Enlistment.Outcome.ABANDONED;
+                        } else if (deactivate()) { // if it fails the superclass will have logged a warning
+                            savedIntentionList = true; // need this clean up if the LRA times out
+                            enlistmentWrites.increment();
+                            outcome = Enlistment.Outcome.DURABLE;
+                        }
+
+                        if (outcome != Enlistment.Outcome.DURABLE) {
+                            covered.forEach(e -> e.participants.forEach(this::discardParticipant));
+                        }
+
+                        pendingEnlistments.removeAll(covered);
+                    } finally {
+                        lock.unlock();
+                    }
+                } finally {
+                    synchronized (durability) {
+                        flushing = false;
+
+                        for (Enlistment e : covered) {
+                            if (e.outcome == Enlistment.Outcome.PENDING) {
+                                e.outcome = outcome;
+                            }
+                        }
+
+                        durability.notifyAll();
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // the enlistment, if any, that added the participant and that is still waiting for its write (needs the LRA lock)
+    private Enlistment findPendingEnlistment(LRAParticipantRecord participant) {
+        for (Enlistment enlistment : pendingEnlistments) {
+            if (enlistment.participants.contains(participant)) {
+                return enlistment;
             }
         }
 
+        return null;
+    }
+
+    // remove the participants of the joins that failed while the LRA lock was held elsewhere (needs the LRA lock)
+    private void discardFailedEnlistments() {
+        pendingEnlistments.removeIf(enlistment -> {
+            synchronized (durability) {
+                if (enlistment.outcome == Enlistment.Outcome.PENDING) {
+                    return false;
+                }
+            }
+
+            enlistment.participants.forEach(this::discardParticipant);
+
+            return true;
+        });
+    }
+
+    /*
+     * Refuse the joins that have not been written when the LRA starts to end, so that the LRA does not
+     * complete or compensate a participant whose join has not been acknowledged (needs the LRA lock)
+     */
+    private void abandonEnlistments() {
+        List<Enlistment> abandoned = new ArrayList<>(pendingEnlistments);
+
+        if (abandoned.isEmpty()) {
+            return;
+        }
+
+        abandoned.forEach(enlistment -> enlistment.participants.forEach(this::discardParticipant));
+        pendingEnlistments.removeAll(abandoned);
+
+        synchronized (durability) {
+            for (Enlistment enlistment : abandoned) {
+                if (enlistment.outcome == Enlistment.Outcome.PENDING) {
+                    enlistment.outcome = Enlistment.Outcome.ABANDONED;
+                }
+            }
+
+            durability.notifyAll();
+        }
+    }
+
+    // the participants that one join added to the LRA
+    private static final class Enlistment {
+        enum Outcome { PENDING, DURABLE, FAILED, BUSY, ABANDONED }
+
+        private final List<LRAParticipantRecord> participants;
+        private Outcome outcome = Outcome.PENDING; // guarded by the durability monitor of the LRA
+
+        Enlistment(List<LRAParticipantRecord> participants) {
+            this.participants = new ArrayList<>(participants);
+        }
+    }
+
+    /**
+     * @return the number of times the LRA was written to the store on behalf of joining participants,
+     * concurrent joins share a write so this can be less than the number of participants
+     */
+    public long getEnlistmentWriteCount() {
+        return enlistmentWrites.sum();
     }
 
     private LRAParticipantRecord doEnlistParticipant(URI coordinatorUrl, String participantUrl, String recoveryUrlBase,
@@ -845,7 +1303,18 @@ public class LongRunningAction extends BasicAction {
                             .build());
         }
 
-        if (add(p) != AddOutcome.AR_REJECTED) {
+        if (status != LRAStatus.Active && (p.getCompensator() != null || p.getEndNotificationUri() == null)) {
+            // once the LRA has started to end only AfterLRA listeners can join it
+            throw tooLateToJoin();
+        }
+
+        int outcome = add(p);
+
+        if (outcome != AddOutcome.AR_REJECTED) {
+            if (outcome == AddOutcome.AR_ADDED) {
+                indexParticipant(p);
+            }
+
             if (setTimeLimit(timeLimit, true) != Response.Status.OK.getStatusCode()) {
                 // there is no remove(p) so just issue a warning - but note that the caller will also try to
                 // save the state so the time limit will be written then or else it will
@@ -862,6 +1331,7 @@ public class LongRunningAction extends BasicAction {
         } else if (isRecovering() && p.getCompensator() == null && p.getEndNotificationUri() != null) {
             // the participant is an AfterLRA listener so manually add it to heuristic list
             heuristicList.putRear(p);
+            indexParticipant(p);
             updateState();
 
             if (LRALogger.logger.isTraceEnabled()) {
@@ -898,6 +1368,91 @@ public class LongRunningAction extends BasicAction {
         return pending.isEmpty();
     }
 
+    /*
+     * If parallel termination is enabled then ask the participants to complete or compensate concurrently before
+     * the records are processed by BasicAction. Each record remembers the outcome which it then reports when
+     * BasicAction calls it, so the usual bookkeeping of the record lists is unchanged. Concurrency is limited
+     * by the terminationParallelism of this LRA: at most that many requests are in progress at a time and each
+     * response starts the request to the next participant in a shared queue until it is empty. No thread waits
+     * for a participant while its request is in progress, the responses are handled by threads shared by all
+     * LRAs and only the calling thread waits, once, for the last of them.
+     *
+     * Participants that must keep their place in the order (nested LRAs) are not prepared here, BasicAction
+     * calls them one after the other in reverse order of enlistment once the other participants have ended.
+     *
+     * The caller holds the LRA lock for the duration of this call.
+     */
+    private void endParticipantsInParallel(RecordList records) {
+        int maxParallelism = terminationParallelism;
+
+        if (maxParallelism <= 1 || records == null || records.size() < 2) {
+            return;
+        }
+
+        Queue<LRAParticipantRecord> participants = new ConcurrentLinkedQueue<>();
+        RecordListIterator i = new RecordListIterator(records);
+        AbstractRecord r;
+
+        while ((r = i.iterate()) != null) {
+            if (r instanceof LRAParticipantRecord && ((LRAParticipantRecord) r).canEndConcurrently()) {
+                participants.add((LRAParticipantRecord) r);
+            }
+        }
+
+        if (participants.size() < 2) {
+            return; // nothing to gain, BasicAction ends them in the usual order
+        }
+
+        boolean compensate = isCancel();
+        List<CompletableFuture<Void>> chains = new ArrayList<>();
+        int parallelism = Math.min(maxParallelism, participants.size());
+
+        if (LRALogger.logger.isTraceEnabled()) {
+            trace_progress("ending " + participants.size() + " participants with parallelism " + parallelism);
+        }
+
+        for (int c = 0; c < parallelism; c++) {
+            chains.add(endNextParticipant(participants, compensate));
+        }
+
+        boolean interrupted = false;
+
+        // wait for all participants since BasicAction must not see records that are still being processed
+        for (CompletableFuture<Void> chain : chains) {
+            while (true) {
+                try {
+                    chain.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    // participants without a prepared outcome will be called again by BasicAction
+                    LRALogger.logger.debugf(e.getCause(), "LongRunningAction: parallel termination of LRA %s failed", id);
+                    break;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // end participants from the queue one after the other, without waiting for a response on the current thread
+    private CompletableFuture<Void> endNextParticipant(Queue<LRAParticipantRecord> participants, boolean compensate) {
+        LRAParticipantRecord participant;
+
+        while ((participant = participants.poll()) != null) {
+            CompletableFuture<Void> ended = participant.prepareOutcome(compensate, terminationExecutor);
+
+            if (!ended.isDone()) {
+                return ended.thenCompose(v -> endNextParticipant(participants, compensate));
+            }
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+
     private void savePendingList() {
         if (pendingList == null) {
             savedIntentionList = true;
@@ -921,80 +1476,141 @@ public class LongRunningAction extends BasicAction {
     private LRAParticipantRecord findLRAParticipant(String participantUrl, boolean remove) {
         LRAParticipantRecord rec;
 
+        checkParticipantIndex();
+
         try {
             URI recoveryUrl = new URI(LRAParticipantRecord.cannonicalForm(participantUrl));
 
-            rec = findLRAParticipantByRecoveryUrl(recoveryUrl, remove, pendingList, preparedList, heuristicList, failedList);
-
+            rec = participantsByRecoveryUrl.get(recoveryUrl);
         } catch (URISyntaxException ignore) {
             String pUrl;
             try {
                 pUrl = LRAParticipantRecord.extractCompensator(participantUrl);
+
+                if (pUrl.indexOf(',') != -1) {
+                    pUrl = LRAParticipantRecord.extractCompensator(pUrl);
+                }
             } catch (URISyntaxException e) {
                 return null;
             }
-            rec = findLRAParticipant(pUrl, remove, pendingList, preparedList, heuristicList, failedList);
+            rec = participantsByCompensator.get(pUrl);
+        }
+
+        if (rec != null && remove && !discardParticipant(rec)) {
+            return null;
         }
 
         return rec;
     }
 
-    private LRAParticipantRecord findLRAParticipant(String participantUrl, boolean remove, RecordList...lists) {
-        for (RecordList list : lists) {
-            if (list != null) {
-                RecordListIterator i = new RecordListIterator(list);
-                AbstractRecord r;
+    // remove a participant from the record lists and from the participant indexes
+    private boolean discardParticipant(LRAParticipantRecord rec) {
+        if (!removeParticipant(rec, pendingList, preparedList, heuristicList, failedList)) {
+            // the record has left the lists without the index noticing
+            indexedRecords = -1;
 
-                if (participantUrl.indexOf(',') != -1) {
-                    try {
-                        participantUrl = LRAParticipantRecord.extractCompensator(participantUrl);
-                    } catch (URISyntaxException e) {
-                        continue;
-                    }
-                }
+            return false;
+        }
 
-                while ((r = i.iterate()) != null) {
-                    if (r instanceof LRAParticipantRecord) {
-                        LRAParticipantRecord rr = (LRAParticipantRecord) r;
-                        // can't use == because this may be a recovery scenario
-                        if (participantUrl.equals(rr.getCompensator())) {
-                            if (remove) {
-                                list.remove(rr);
-                            }
+        if (duplicateParticipantKeys) {
+            // another record may share a key with the removed one so rebuild on the next lookup
+            indexedRecords = -1;
+        } else {
+            unindexParticipant(rec);
 
-                            return rr;
-                        }
-                    }
-                }
+            if (indexedRecords > 0) {
+                indexedRecords -= 1;
             }
         }
 
-        return null;
+        return true;
     }
 
-    private LRAParticipantRecord findLRAParticipantByRecoveryUrl(URI recoveryUrl, boolean remove, RecordList...lists) {
+    private boolean removeParticipant(LRAParticipantRecord rec, RecordList...lists) {
         for (RecordList list : lists) {
+            if (list != null && list.remove(rec)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void indexParticipant(AbstractRecord record) {
+        if (indexedRecords >= 0) {
+            indexedRecords += 1;
+        }
+
+        if (record instanceof LRAParticipantRecord) {
+            putParticipantKeys((LRAParticipantRecord) record);
+        }
+    }
+
+    private void putParticipantKeys(LRAParticipantRecord rec) {
+        // the first record in list order wins, which matches the order that the lists used to be searched in
+        LRAParticipantRecord previous = null;
+
+        if (rec.getRecoveryURI() != null) {
+            previous = participantsByRecoveryUrl.putIfAbsent(rec.getRecoveryURI(), rec);
+        }
+
+        if (rec.getCompensator() != null) {
+            LRAParticipantRecord other = participantsByCompensator.putIfAbsent(rec.getCompensator(), rec);
+
+            previous = previous != null ? previous : other;
+        }
+
+        if (previous != null && previous != rec) {
+            duplicateParticipantKeys = true;
+        }
+    }
+
+    private void unindexParticipant(LRAParticipantRecord rec) {
+        if (rec.getRecoveryURI() != null) {
+            participantsByRecoveryUrl.remove(rec.getRecoveryURI(), rec);
+        }
+
+        if (rec.getCompensator() != null) {
+            participantsByCompensator.remove(rec.getCompensator(), rec);
+        }
+    }
+
+    private static int size(RecordList list) {
+        return list == null ? 0 : list.size();
+    }
+
+    // rebuild the participant indexes if records have been added to or dropped from the lists behind their back
+    private void checkParticipantIndex() {
+        int records = size(pendingList) + size(preparedList) + size(heuristicList) + size(failedList);
+
+        if (records == indexedRecords) {
+            return;
+        }
+
+        participantsByRecoveryUrl.clear();
+        participantsByCompensator.clear();
+        duplicateParticipantKeys = false;
+        indexedRecords = 0;
+
+        for (RecordList list : new RecordList[] {pendingList, preparedList, heuristicList, failedList}) {
             if (list != null) {
                 RecordListIterator i = new RecordListIterator(list);
                 AbstractRecord r;
 
                 while ((r = i.iterate()) != null) {
-                    if (r instanceof LRAParticipantRecord) {
-                        LRAParticipantRecord rr = (LRAParticipantRecord) r;
-                        // can't use == because this may be a recovery scenario
-                        if (rr.getRecoveryURI().equals(recoveryUrl)) {
-                            if (remove) {
-                                list.remove(rr);
-                            }
-
-                            return rr;
-                        }
-                    }
+                    indexParticipant(r);
                 }
             }
         }
 
-        return null;
+        participantIndexRebuilds.increment();
+    }
+
+    /**
+     * @return the number of times the participant indexes of this LRA were rebuilt from the record lists
+     */
+    public long getParticipantIndexRebuildCount() {
+        return participantIndexRebuilds.sum();
     }
 
     public boolean isTopLevel() {
@@ -1074,7 +1690,7 @@ public class LongRunningAction extends BasicAction {
 
             // the entry to the state model is LRAStatus.Active which was never achieved and
             // the caller of this method (LRAService) wil notify the client about the failure
-            status = null;
+            setStatus(null);
         }
 
         return res;
@@ -1097,7 +1713,7 @@ public class LongRunningAction extends BasicAction {
             return Response.Status.OK.getStatusCode();
         }
 
-        return scheduleCancellation(this::abortLRA, timeLimit, save);
+        return scheduleCancellation(this::timeLimitReached, timeLimit, save);
     }
 
     private int scheduleCancellation(Runnable runnable, Long timeLimit, boolean save) {
@@ -1126,11 +1742,13 @@ public class LongRunningAction extends BasicAction {
             // it is earlier so cancel the current timer
             finishTime = ft;
 
-            if (scheduledAbort != null) {
+            HashedTimingWheel.Timeout previous = scheduledAbort.getAndSet(null);
+
+            if (previous != null) {
                 if (LRALogger.logger.isTraceEnabled()) {
                     trace_progress("scheduleCancellation: earlier than previous timer");
                 }
-                scheduledAbort.cancel(false);
+                previous.cancel();
             }
         } else {
             // if timeLimit is negative the abort will be scheduled immediately
@@ -1142,7 +1760,12 @@ public class LongRunningAction extends BasicAction {
         }
 
         try {
-            scheduledAbort = scheduler.schedule(runnable, timeLimit, TimeUnit.MILLISECONDS);
+            HashedTimingWheel.Timeout previous =
+                    scheduledAbort.getAndSet(timer.schedule(runnable, timeLimit, TimeUnit.MILLISECONDS));
+
+            if (previous != null) {
+                previous.cancel();
+            }
             if (LRALogger.logger.isTraceEnabled()) {
                 trace_progress("scheduleCancellation accepted");
             }
@@ -1165,6 +1788,36 @@ public class LongRunningAction extends BasicAction {
         return Response.Status.OK.getStatusCode();
     }
 
+    // called on the timer thread so it must not block
+    private void timeLimitReached() {
+        try {
+            cancellationExecutor.execute(this::abortLRA);
+        } catch (RejectedExecutionException e) {
+            LRALogger.logger.warnf("The cancellation of LRA %s after reaching its time limit was not accepted (%s), " +
+                            "it will be retried in %d ms", id, e.getMessage(), CANCELLATION_RETRY_DELAY);
+
+            // the handle of the timeout that fired, null if the LRA was ended in the meantime
+            HashedTimingWheel.Timeout fired = scheduledAbort.get();
+
+            if (fired == null || status != LRAStatus.Active) {
+                return;
+            }
+
+            try {
+                HashedTimingWheel.Timeout retry =
+                        timer.schedule(this::timeLimitReached, CANCELLATION_RETRY_DELAY, TimeUnit.MILLISECONDS);
+
+                // an end or a new time limit that replaced the handle concurrently owns the cancellation now
+                if (!scheduledAbort.compareAndSet(fired, retry) || status != LRAStatus.Active) {
+                    retry.cancel();
+                }
+            } catch (RejectedExecutionException stopped) {
+                // the timer is stopping so periodic recovery will eventually cancel this LRA
+                LRALogger.logger.debugf("Cannot reschedule the cancellation of LRA %s: %s", id, stopped.getMessage());
+            }
+        }
+    }
+
     private void abortLRA() {
         ReentrantLock lock = tryLockTransaction();
 
@@ -1172,14 +1825,14 @@ public class LongRunningAction extends BasicAction {
             try {
                 int actionStatus = status();
 
-                scheduledAbort = null;
+                scheduledAbort.set(null);
 
                 if (actionStatus == ActionStatus.RUNNING || actionStatus == ActionStatus.ABORT_ONLY) {
                     if (LRALogger.logger.isDebugEnabled()) {
                         LRALogger.logger.debugf("LongRunningAction.abortLRA cancelling LRA `%s", id);
                     }
 
-                    // nb updateState can throw an exception which is logged and the caller, ie scheduler, ignores it
+                    // nb updateState can throw an exception which is logged and the caller, ie the timer, ignores it
                     if (getSize(pendingList) == 0 && getSize(preparedList) == 0 && getSize(heuristicList) == 0) {
                         updateState(LRAStatus.Cancelled);
                     } else {
@@ -1201,8 +1854,14 @@ public class LongRunningAction extends BasicAction {
 
         if (lraRecord != null) {
             try {
-                lraRecord.setRecoveryURI(recoveryUri);
-                lraRecord.updateCallbacks(linkHeader);
+                unindexParticipant(lraRecord);
+
+                try {
+                    lraRecord.setRecoveryURI(recoveryUri);
+                    lraRecord.updateCallbacks(linkHeader);
+                } finally {
+                    putParticipantKeys(lraRecord);
+                }
 
                 if (!deactivate()) {
                     LRALogger.logger.warn(LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON));
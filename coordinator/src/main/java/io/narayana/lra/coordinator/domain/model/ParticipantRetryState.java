@@ -0,0 +1,82 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import io.narayana.lra.ParticipantRetryData;
+
+import java.net.URI;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The retry schedule of a participant that an attempt to complete or compensate did not finish.
+ * Recovery only contacts the participant again once the next attempt is due. The delay doubles with
+ * every attempt, up to a maximum, and up to half of it is taken off at random so that the participants
+ * of LRAs that failed together do not all retry together.
+ * <p>
+ * The first delay is one second unless {@code lra.coordinator.recovery.backoff.initial} says otherwise.
+ * Setting it to 0 disables backing off, and recovery then contacts every unfinished participant on every pass.
+ */
+public final class ParticipantRetryState {
+    // the delay (in milliseconds) after the first failed attempt, 0 disables backing off
+    private static final long INITIAL_BACKOFF = Long.getLong("lra.coordinator.recovery.backoff.initial", 1_000);
+    // the longest delay (in milliseconds) between two attempts
+    private static final long MAX_BACKOFF = Long.getLong("lra.coordinator.recovery.backoff.max", 3_600_000);
+
+    private final URI lraId;
+    private final String participant;
+    private int attempts;
+    private long lastAttempt;
+    private long nextAttempt;
+
+    public ParticipantRetryState(URI lraId, String participant) {
+        this.lraId = lraId;
+        this.participant = participant;
+    }
+
+    /**
+     * @return whether recovery backs off from participants that it failed to finish, which is the
+     * case unless {@code lra.coordinator.recovery.backoff.initial} is 0
+     */
+    public static boolean isEnabled() {
+        return INITIAL_BACKOFF > 0;
+    }
+
+    /**
+     * @param now the current time in milliseconds since the epoch
+     * @return whether the participant should be contacted again
+     */
+    public synchronized boolean isDue(long now) {
+        return now >= nextAttempt;
+    }
+
+    /**
+     * Record an attempt that did not finish the participant and schedule the next one.
+     *
+     * @param now the current time in milliseconds since the epoch
+     */
+    public synchronized void failed(long now) {
+        attempts += 1;
+        lastAttempt = now;
+        nextAttempt = now + backoff(attempts, INITIAL_BACKOFF, MAX_BACKOFF);
+    }
+
+    public synchronized ParticipantRetryData getData() {
+        return new ParticipantRetryData(lraId, participant, attempts, lastAttempt, nextAttempt);
+    }
+
+    /**
+     * @param attempts the number of failed attempts (at least one)
+     * @param initial the delay after the first failed attempt
+     * @param max the longest delay
+     * @return a delay of between half and all of {@code initial * 2^(attempts - 1)}, capped at {@code max}
+     */
+    static long backoff(int attempts, long initial, long max) {
+        int doublings = Math.min(attempts - 1, Long.numberOfLeadingZeros(initial) - 1); // do not overflow
+        long delay = Math.min(initial << doublings, max);
+
+        return delay - ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+}
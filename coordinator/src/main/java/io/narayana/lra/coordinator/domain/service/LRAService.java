@@ -10,11 +10,16 @@ import com.arjuna.ats.arjuna.coordinator.ActionStatus;
 import com.arjuna.ats.arjuna.coordinator.BasicAction;
 import io.narayana.lra.LRAConstants;
 import io.narayana.lra.LRAData;
+import io.narayana.lra.LRAParticipantEnlistment;
+import io.narayana.lra.LRAStartRequest;
+import io.narayana.lra.ParticipantRetryData;
 import io.narayana.lra.logging.LRALogger;
 import com.arjuna.ats.arjuna.recovery.RecoveryManager;
 
 import io.narayana.lra.coordinator.domain.model.LRAParticipantRecord;
+import io.narayana.lra.coordinator.domain.model.ParticipantRetryState;
 import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import io.narayana.lra.coordinator.internal.MonitoredExecutor;
 import io.narayana.lra.coordinator.domain.model.LongRunningAction;
 
 import jakarta.ws.rs.ServiceUnavailableException;
@@ -27,12 +32,26 @@ import jakarta.ws.rs.core.Response;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static jakarta.ws.rs.core.Response.Status.NOT_FOUND;
@@ -40,47 +59,83 @@ import static java.util.stream.Collectors.toList;
 
 public class LRAService {
     private static final Pattern LINK_REL_PATTERN = Pattern.compile("(\\w+)=\"([^\"]+)\"|([^\\s]+)");
+    // runs the participant protocol for LRAs that were closed or cancelled asynchronously (see endLRAAsync)
+    // and begins the LRAs of a batch start request in parallel (see startLRAs)
+    private static final MonitoredExecutor terminationExecutor = new MonitoredExecutor("lra-termination",
+            Integer.getInteger("lra.coordinator.async.end.threads", 10),
+            Integer.getInteger("lra.coordinator.async.end.queue.size", 10000));
+
+    // the orders in which a page of LRAs can be listed (see getPage)
+    private static final Comparator<SortKey> BY_ID = Comparator.comparing(key -> key.id);
+    private static final Comparator<SortKey> BY_START_TIME =
+            Comparator.<SortKey>comparingLong(key -> key.startTime).thenComparing(BY_ID);
+    private static final Map<String, Comparator<SortKey>> SORT_ORDERS = Map.of(
+            "id", BY_ID, "-id", BY_ID.reversed(), "startTime", BY_START_TIME, "-startTime", BY_START_TIME.reversed());
 
     private final Map<URI, LongRunningAction> lras = new ConcurrentHashMap<>();
     private final Map<URI, LongRunningAction> recoveringLRAs = new ConcurrentHashMap<>();
+    // secondary index of lras and recoveringLRAs keyed by the string form of the Arjuna uid
+    private final Map<String, LongRunningAction> lrasByUid = new ConcurrentHashMap<>();
+    // secondary index of lras and recoveringLRAs by LRA status, kept current by statusChanged
+    private final Map<LRAStatus, Map<URI, LongRunningAction>> lrasByStatus = newStatusIndex();
     private final Map<URI, ReentrantLock> locks = new ConcurrentHashMap<>();
     private final Map<LongRunningAction, Map<String, String>> lraParticipants = new ConcurrentHashMap<>();
+    // reverse index of lraParticipants from a participant recovery id to the LRA that owns it
+    private final Map<String, LongRunningAction> participantsByRecoveryId = new ConcurrentHashMap<>();
+    // the retry schedules of participants that have not finished, by LRA and then by participant
+    private final Map<URI, Map<String, ParticipantRetryState>> participantRetries = new ConcurrentHashMap<>();
+    private final LongAdder contendedLocks = new LongAdder();
+    private final LongAdder failedTryLocks = new LongAdder();
     private LRARecoveryModule recoveryModule;
 
     public LongRunningAction getTransaction(URI lraId) throws NotFoundException {
-        if (!lras.containsKey(lraId)) {
-            String uid = LRAConstants.getLRAUid(lraId);
+        LongRunningAction lra = lras.get(lraId);
 
-            if (uid == null || uid.isEmpty()) {
-                String errorMsg = "Invalid transaction format of LRA id: " + lraId;
-                throw new NotFoundException(errorMsg, // 404
-                        Response.status(NOT_FOUND).entity(errorMsg).build());
-            }
+        if (lra != null) {
+            return lra;
+        }
 
-            // try comparing on uid since different URIs can map to the same resource
-            // (eg localhost versus 127.0.0.1 versus :1 etc)
-            for (LongRunningAction lra : lras.values()) {
-                if (uid.equals(lra.get_uid().fileStringForm())) {
-                    return lra;
-                }
-            }
+        String uid = LRAConstants.getLRAUid(lraId);
 
-            if (!recoveringLRAs.containsKey(lraId)) {
-                for (LongRunningAction lra : recoveringLRAs.values()) {
-                    if (uid.equals(lra.get_uid().fileStringForm())) {
-                        return lra;
-                    }
-                }
+        if (uid == null || uid.isEmpty()) {
+            String errorMsg = "Invalid transaction format of LRA id: " + lraId;
+            throw new NotFoundException(errorMsg, // 404
+                    Response.status(NOT_FOUND).entity(errorMsg).build());
+        }
 
-                String errorMsg = "Invalid transaction id: " + lraId;
-                throw new NotFoundException(errorMsg, // 404
-                        Response.status(NOT_FOUND).entity(errorMsg).build());
-            }
+        // try the uid index since different URIs can map to the same resource
+        // (eg localhost versus 127.0.0.1 versus :1 etc)
+        lra = lrasByUid.get(uid);
 
-            return recoveringLRAs.get(lraId);
+        if (lra == null) {
+            lra = recoveringLRAs.get(lraId);
         }
 
-        return lras.get(lraId);
+        if (lra == null) {
+            String errorMsg = "Invalid transaction id: " + lraId;
+            throw new NotFoundException(errorMsg, // 404
+                    Response.status(NOT_FOUND).entity(errorMsg).build());
+        }
+
+        return lra;
+    }
+
+    /**
+     * @param uid the uid of the log record of an LRA
+     * @return the instance of the LRA that this service manages or null if it does not manage the LRA
+     */
+    public LongRunningAction lookupTransaction(Uid uid) {
+        return lrasByUid.get(uid.fileStringForm());
+    }
+
+    /**
+     * @param lraId the id of the LRA
+     * @return true if a thread holds the lock of the LRA, for example because it is ending the LRA
+     */
+    public boolean isLocked(URI lraId) {
+        ReentrantLock lock = locks.get(lraId);
+
+        return lock != null && lock.isLocked();
     }
 
     public LongRunningAction lookupTransaction(URI lraId) {
@@ -96,18 +151,77 @@ public class LRAService {
         return lra.getLRAData();
     }
 
-    public synchronized ReentrantLock lockTransaction(URI lraId) {
+    /*
+     * The lock table does not need a global monitor: ConcurrentHashMap.computeIfAbsent atomically publishes
+     * a single lock per LRA and only contends with callers that map to the same bin. The lock lives until
+     * the LRA is removed from the service (see remove(URI)).
+     */
+    public ReentrantLock lockTransaction(URI lraId) {
         ReentrantLock lock = locks.computeIfAbsent(lraId, k -> new ReentrantLock());
 
-        lock.lock();
+        if (!lock.tryLock()) {
+            contendedLocks.increment();
+            lock.lock();
+        }
 
         return lock;
     }
 
-    public synchronized ReentrantLock tryLockTransaction(URI lraId) {
+    public ReentrantLock tryLockTransaction(URI lraId) {
+        ReentrantLock lock = locks.computeIfAbsent(lraId, k -> new ReentrantLock());
+
+        if (lock.tryLock()) {
+            return lock;
+        }
+
+        failedTryLocks.increment();
+
+        return null;
+    }
+
+    /**
+     * Like {@link #tryLockTransaction(URI)} but wait for up to the given time for the lock to become free
+     *
+     * @param lraId the LRA to lock
+     * @param timeout the maximum time to wait for the lock
+     * @param unit the unit of the timeout
+     * @return the lock or null if it could not be acquired in time (or the calling thread was interrupted)
+     */
+    public ReentrantLock tryLockTransaction(URI lraId, long timeout, TimeUnit unit) {
         ReentrantLock lock = locks.computeIfAbsent(lraId, k -> new ReentrantLock());
 
-        return lock.tryLock() ? lock : null;
+        try {
+            if (lock.tryLock(timeout, unit)) {
+                return lock;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        failedTryLocks.increment();
+
+        return null;
+    }
+
+    /**
+     * @return the number of calls to {@link #lockTransaction(URI)} that had to wait for another holder of the LRA lock
+     */
+    public long getContendedLockCount() {
+        return contendedLocks.sum();
+    }
+
+    /**
+     * @return the number of calls to {@link #tryLockTransaction(URI)} that failed because the LRA lock was held
+     */
+    public long getFailedTryLockCount() {
+        return failedTryLocks.sum();
+    }
+
+    /**
+     * @return the number of LRA locks currently held in the lock table
+     */
+    public int getLockTableSize() {
+        return locks.size();
     }
 
     public List<LRAData> getAll() {
@@ -122,9 +236,159 @@ public class LRAService {
             return all;
         }
 
-        List<LRAData> allByStatus = getDataByStatus(lras, lraStatus);
-        allByStatus.addAll(getDataByStatus(recoveringLRAs, lraStatus));
-        return allByStatus;
+        return streamAll(lraStatus).collect(toList());
+    }
+
+    /**
+     * Count the active and recovering LRAs without visiting them.
+     *
+     * @param lraStatus only count the LRAs in this state, or count every LRA if null
+     * @return the number of LRAs
+     */
+    public int getCount(LRAStatus lraStatus) {
+        if (lraStatus == null) {
+            return lrasByStatus.values().stream().mapToInt(Map::size).sum();
+        }
+
+        return lrasByStatus.get(lraStatus).size();
+    }
+
+    /**
+     * Stream the data of the active and recovering LRAs in no particular order. Each LRA is converted
+     * to {@link LRAData} only when the stream reaches it so the caller can write the entries out one
+     * at a time instead of holding the data of every LRA at once.
+     *
+     * @param lraStatus only include the LRAs in this state, or every LRA if null
+     * @return the data of the LRAs
+     */
+    public Stream<LRAData> streamAll(LRAStatus lraStatus) {
+        return transactions(lraStatus).map(LongRunningAction::getLRAData);
+    }
+
+    /**
+     * Get a page of the active and recovering LRAs in a given order. The LRAs are scanned keeping only
+     * the best {@code limit} LRAs seen so far, so the memory used depends on the size of the page
+     * rather than on the number of LRAs.
+     *
+     * @param lraStatus only include the LRAs in this state, or every LRA if null
+     * @param sort the order of the LRAs: {@code id}, {@code startTime} (ties ordered by id),
+     *             or either of them prefixed with {@code -} for descending order
+     * @param cursor the cursor (see {@link #getCursor(LRAData)}) of the last LRA of the previous page,
+     *               or null for the first page
+     * @param limit the maximum number of LRAs in the page
+     * @return the LRAs of the page, fewer than limit if it is the last page
+     * @throws IllegalArgumentException if the sort order, the cursor or the limit is not valid
+     */
+    public List<LRAData> getPage(LRAStatus lraStatus, String sort, String cursor, int limit) {
+        return selectPage(transactions(lraStatus), SortKey::of, sort, cursor, limit).stream()
+                .map(LongRunningAction::getLRAData)
+                .collect(toList());
+    }
+
+    // keep the best limit candidates that follow the cursor in the given sort order (see getPage)
+    private static <T> List<T> selectPage(Stream<T> candidates, Function<T, SortKey> keyOf,
+                                          String sort, String cursor, int limit) {
+        Comparator<SortKey> order = SORT_ORDERS.get(sort);
+
+        if (order == null) {
+            throw new IllegalArgumentException(
+                    String.format("Sort order %s is not one of %s", sort, SORT_ORDERS.keySet()));
+        }
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException("The page size must be positive: " + limit);
+        }
+
+        SortKey after = cursor == null || cursor.isEmpty() ? null : SortKey.parse(cursor);
+        // the head of the queue is the LRA that comes last (in the requested order) of the ones selected so far
+        PriorityQueue<Map.Entry<SortKey, T>> selected =
+                new PriorityQueue<>(limit + 1, Map.Entry.comparingByKey(order.reversed()));
+
+        candidates.forEach(lra -> {
+            SortKey key = keyOf.apply(lra);
+
+            if (after != null && order.compare(key, after) <= 0) {
+                return; // the LRA was on an earlier page
+            }
+
+            if (selected.size() < limit) {
+                selected.add(Map.entry(key, lra));
+            } else if (order.compare(key, selected.peek().getKey()) < 0) {
+                selected.poll();
+                selected.add(Map.entry(key, lra));
+            }
+        });
+
+        List<Map.Entry<SortKey, T>> page = new ArrayList<>(selected);
+
+        page.sort(Map.Entry.comparingByKey(order));
+
+        return page.stream().map(Map.Entry::getValue).collect(toList());
+    }
+
+    /**
+     * @param lra an LRA returned by {@link #getPage(LRAStatus, String, String, int)}
+     * @return the cursor for obtaining the LRAs that follow the given one
+     */
+    public static String getCursor(LRAData lra) {
+        String key = lra.getStartTime() + ":" + lra.getLraId();
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // the active and recovering LRAs, a recovering LRA that is also still active is only included once
+    private Stream<LongRunningAction> transactions(LRAStatus lraStatus) {
+        if (lraStatus == null) {
+            return Stream.concat(lras.values().stream(),
+                    recoveringLRAs.values().stream().filter(lra -> !lras.containsKey(lra.getId())));
+        }
+
+        // only visit the LRAs in the requested state (checked again in case the status changed during the query)
+        return lrasByStatus.get(lraStatus).values().stream().filter(lra -> lra.getLRAStatus() == lraStatus);
+    }
+
+    private static Map<LRAStatus, Map<URI, LongRunningAction>> newStatusIndex() {
+        Map<LRAStatus, Map<URI, LongRunningAction>> index = new EnumMap<>(LRAStatus.class);
+
+        for (LRAStatus status : LRAStatus.values()) {
+            index.put(status, new ConcurrentHashMap<>());
+        }
+
+        return index;
+    }
+
+    /**
+     * Called by an LRA when its status changes so that the LRA is indexed under its new status.
+     * LRAs that are not managed by this service are ignored.
+     *
+     * @param lra the LRA whose status has changed
+     * @param previous the status of the LRA before the change
+     */
+    public void statusChanged(LongRunningAction lra, LRAStatus previous) {
+        LRAStatus current = lra.getLRAStatus();
+
+        if (previous == null || !lrasByStatus.get(previous).remove(lra.getId(), lra) || current == null) {
+            return; // the LRA was not indexed
+        }
+
+        lrasByStatus.get(current).put(lra.getId(), lra);
+
+        // the LRA may have been removed from the service while it was being moved
+        if (lras.get(lra.getId()) != lra && recoveringLRAs.get(lra.getId()) != lra) {
+            lrasByStatus.get(current).remove(lra.getId(), lra);
+        }
+    }
+
+    private void indexStatus(LongRunningAction lra) {
+        LRAStatus status = lra.getLRAStatus();
+
+        if (status != null) {
+            lrasByStatus.get(status).put(lra.getId(), lra);
+        }
+    }
+
+    private void unindexStatus(LongRunningAction lra) {
+        lrasByStatus.values().forEach(index -> index.remove(lra.getId(), lra));
     }
 
     /**
@@ -150,14 +414,19 @@ public class LRAService {
 
     public void addTransaction(LongRunningAction lra) {
         lras.put(lra.getId(), lra);
+        lrasByUid.put(lra.get_uid().fileStringForm(), lra);
+        indexStatus(lra);
     }
 
     public void finished(LongRunningAction transaction, boolean fromHierarchy) {
         if (transaction.isFailed()) {
-            getRM().moveEntryToFailedLRAPath(transaction.get_uid());
+            getRM().moveEntryToFailedLRAPath(transaction);
         }
         if (transaction.isRecovering()) {
             recoveringLRAs.put(transaction.getId(), transaction);
+            lrasByUid.putIfAbsent(transaction.get_uid().fileStringForm(), transaction);
+            indexStatus(transaction);
+            recoveryNeeded(transaction);
         } else if (fromHierarchy || transaction.isTopLevel()) {
             // the LRA is top level or it's a nested LRA that was closed by a
             // parent LRA (ie when fromHierarchy is true) then it's okay to forget about the LRA
@@ -199,34 +468,102 @@ public class LRAService {
         LongRunningAction lra = lras.remove(lraId);
 
         if (lra != null) {
-            lraParticipants.remove(lra);
+            Map<String, String> participants = lraParticipants.remove(lra);
+
+            if (participants != null) {
+                participants.keySet().forEach(recoveryId -> participantsByRecoveryId.remove(recoveryId, lra));
+            }
+
+            lrasByUid.remove(lra.get_uid().fileStringForm(), lra);
+            unindexStatus(lra);
         }
 
-        recoveringLRAs.remove(lraId);
+        LongRunningAction recovering = recoveringLRAs.remove(lraId);
+
+        if (recovering != null) {
+            lrasByUid.remove(recovering.get_uid().fileStringForm(), recovering);
+            unindexStatus(recovering);
+        }
 
         locks.remove(lraId);
+        participantRetries.remove(lraId);
+    }
+
+    /**
+     * @param lraId the LRA that the participant is enlisted with
+     * @param participant identifies the participant within the LRA
+     * @return the retry schedule of the participant, created if the participant does not have one
+     */
+    public ParticipantRetryState getRetryState(URI lraId, String participant) {
+        ParticipantRetryState[] retry = new ParticipantRetryState[1];
+
+        // compute is atomic for an LRA so the schedule cannot be added to a map that clearRetryState is dropping
+        participantRetries.compute(lraId, (id, retries) -> {
+            if (retries == null) {
+                retries = new ConcurrentHashMap<>();
+            }
+
+            retry[0] = retries.computeIfAbsent(participant, p -> new ParticipantRetryState(id, p));
+
+            return retries;
+        });
+
+        return retry[0];
+    }
+
+    /**
+     * @param lraId the LRA that the participant is enlisted with
+     * @param participant identifies the participant within the LRA
+     * @return the retry schedule of the participant or null if it does not have one
+     */
+    public ParticipantRetryState findRetryState(URI lraId, String participant) {
+        Map<String, ParticipantRetryState> retries = participantRetries.get(lraId);
+
+        return retries == null ? null : retries.get(participant);
+    }
+
+    public void clearRetryState(URI lraId, String participant) {
+        participantRetries.computeIfPresent(lraId, (id, retries) -> {
+            retries.remove(participant);
+
+            return retries.isEmpty() ? null : retries;
+        });
+    }
+
+    /**
+     * @return the participants that recovery will retry, the ones that are due soonest first
+     */
+    public List<ParticipantRetryData> getRecoveryBacklog() {
+        return participantRetries.values().stream()
+                .flatMap(retries -> retries.values().stream())
+                .map(ParticipantRetryState::getData)
+                .sorted(Comparator.comparingLong(ParticipantRetryData::getNextAttempt))
+                .collect(toList());
     }
 
     public void recover() {
         getRM().recover();
     }
 
+    /**
+     * Tell recovery that an LRA did not finish, so that the next recovery pass reads its log record.
+     *
+     * @param lra the LRA that needs recovery
+     */
+    public void recoveryNeeded(LongRunningAction lra) {
+        getRM().markDirty(lra.get_uid());
+    }
+
     public boolean updateRecoveryURI(URI lraId, String compensatorUrl, String recoveryURI, boolean persist) {
         assert recoveryURI != null;
         assert compensatorUrl != null;
         LongRunningAction transaction = getTransaction(lraId);
-        Map<String, String> participants = lraParticipants.get(transaction);
 
         // the <participants> collection should be thread safe against update requests, even though such concurrent
         // updates are improbable because only LRAService.joinLRA and RecoveryCoordinator.replaceCompensator
         // do updates but those are sequential operations anyway
-        if (participants == null) {
-            participants = new ConcurrentHashMap<>();
-            participants.put(recoveryURI, compensatorUrl);
-            lraParticipants.put(transaction, participants);
-        } else {
-            participants.replace(recoveryURI, compensatorUrl);
-        }
+        lraParticipants.computeIfAbsent(transaction, k -> new ConcurrentHashMap<>()).put(recoveryURI, compensatorUrl);
+        participantsByRecoveryId.put(recoveryURI, transaction);
 
         if (persist) {
             return transaction.updateRecoveryURI(compensatorUrl, recoveryURI);
@@ -236,18 +573,36 @@ public class LRAService {
     }
 
     public String getParticipant(String rcvCoordId) {
-        for (Map<String, String> compensators : lraParticipants.values()) {
-            String compensator = compensators.get(rcvCoordId);
+        LongRunningAction lra = participantsByRecoveryId.get(rcvCoordId);
 
-            if (compensator != null) {
-                return compensator;
-            }
+        if (lra == null) {
+            return null;
         }
 
-        return null;
+        Map<String, String> compensators = lraParticipants.get(lra);
+
+        return compensators == null ? null : compensators.get(rcvCoordId);
     }
 
-    public synchronized LongRunningAction startLRA(String baseUri, URI parentLRA, String clientId, Long timelimit) {
+    /*
+     * LRAs are started concurrently: uid generation and the object store write are thread safe and
+     * each LRA is written under its own uid. Linking a nested LRA with an in-VM parent goes through
+     * BasicAction.add on the parent which is synchronized on the parent and is rejected if the parent
+     * is no longer running, in which case the child fails to begin.
+     */
+    public LongRunningAction startLRA(String baseUri, URI parentLRA, String clientId, Long timelimit) {
+        return startLRA(baseUri, parentLRA, clientId, timelimit, 0);
+    }
+
+    /**
+     * Start an LRA whose participants may be ended concurrently
+     *
+     * @param terminationParallelism the maximum number of participants of the LRA that are asked to complete or
+     *                               compensate concurrently (see {@link LongRunningAction#setTerminationParallelism}),
+     *                               0 for the default of the coordinator
+     */
+    public LongRunningAction startLRA(String baseUri, URI parentLRA, String clientId, Long timelimit,
+                                      int terminationParallelism) {
         LongRunningAction lra;
         int status;
 
@@ -258,6 +613,10 @@ public class LRAService {
                     .entity(String.format("Invalid base URI: '%s'", baseUri)).build());
         }
 
+        if (terminationParallelism > 0) {
+            lra.setTerminationParallelism(terminationParallelism);
+        }
+
         status = lra.begin(timelimit);
 
         if (lra.getLRAStatus() == null) {
@@ -279,6 +638,71 @@ public class LRAService {
         }
     }
 
+    /**
+     * Start a batch of LRAs. The object store writes each LRA under its own uid and cannot write several
+     * of them in one go, so instead the LRAs are begun in parallel and the batch waits for roughly one
+     * store write rather than one write per LRA. The batch either starts completely or not at all: if any
+     * LRA cannot be started then the LRAs of the batch that did start are cancelled and the first
+     * failure is reported.
+     *
+     * @param baseUri the coordinator URL that the ids of the new LRAs are based on
+     * @param requests the client id, time limit and parent of each LRA to start
+     * @return the new LRAs in the same order as the requests
+     */
+    public List<LongRunningAction> startLRAs(String baseUri, List<LRAStartRequest> requests) {
+        List<CompletableFuture<LongRunningAction>> starts = new ArrayList<>(requests.size());
+
+        for (LRAStartRequest request : requests) {
+            Supplier<LongRunningAction> start = () -> startLRA(baseUri, request.getParentLRA(),
+                    request.getClientId() == null ? "" : request.getClientId(), request.getTimeLimit());
+
+            try {
+                starts.add(CompletableFuture.supplyAsync(start, terminationExecutor));
+            } catch (RejectedExecutionException e) {
+                // the executor is saturated so begin the LRA in the calling thread
+                CompletableFuture<LongRunningAction> started = new CompletableFuture<>();
+
+                try {
+                    started.complete(start.get());
+                } catch (RuntimeException ex) {
+                    started.completeExceptionally(ex);
+                }
+
+                starts.add(started);
+            }
+        }
+
+        List<LongRunningAction> lras = new ArrayList<>(requests.size());
+        RuntimeException failure = null;
+
+        for (CompletableFuture<LongRunningAction> start : starts) {
+            try {
+                lras.add(start.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+            }
+        }
+
+        if (failure != null) {
+            for (LongRunningAction lra : lras) {
+                try {
+                    endLRA(lra.getId(), true, false);
+                } catch (WebApplicationException e) {
+                    if (LRALogger.logger.isDebugEnabled()) {
+                        LRALogger.logger.debugf("LRAService.startLRAs: could not cancel %s: %s",
+                                lra.getId(), e.getMessage());
+                    }
+                }
+            }
+
+            throw failure;
+        }
+
+        return lras;
+    }
+
     public LRAData endLRA(URI lraId, boolean compensate, boolean fromHierarchy) {
         return endLRA(lraId, compensate, fromHierarchy, null, null);
     }
@@ -308,6 +732,60 @@ public class LRAService {
         return transaction.getLRAData();
     }
 
+    /**
+     * Start closing or cancelling an LRA without waiting for the participants to be told the outcome.
+     * The LRA is validated in the calling thread (so an unknown or already terminated LRA is reported
+     * immediately) and the participant protocol then runs on a dedicated executor. The caller can
+     * follow progress by polling the status of the LRA.
+     *
+     * @param lraId the LRA to end
+     * @param compensate whether to cancel (true) or close (false) the LRA
+     * @param compensator the compensator URL that the participant data belongs to (can be null)
+     * @param userData participant data to pass to the compensator (can be null)
+     * @return the status of the LRA at the time the request was accepted
+     * @throws ServiceUnavailableException if the executor has no capacity for the request
+     */
+    public LRAStatus endLRAAsync(URI lraId, boolean compensate, String compensator, String userData) {
+        lraTrace(lraId, "end LRA asynchronously");
+
+        LongRunningAction transaction = getTransaction(lraId);
+
+        if (transaction.getLRAStatus() != LRAStatus.Active && !transaction.isRecovering() && transaction.isTopLevel()) {
+            String errorMsg = String.format("%s: LRA is closing or closed: endLRAAsync", lraId);
+            throw new WebApplicationException(errorMsg, Response.status(Response.Status.PRECONDITION_FAILED)
+                    .entity(errorMsg).build());
+        }
+
+        try {
+            terminationExecutor.execute(() -> {
+                try {
+                    endLRA(lraId, compensate, false, compensator, userData);
+                } catch (WebApplicationException e) {
+                    // the LRA may have been ended by another request or timed out in the meantime
+                    if (LRALogger.logger.isDebugEnabled()) {
+                        LRALogger.logger.debugf("LRAService.endLRAAsync: ending %s failed with status %d: %s",
+                                lraId, e.getResponse().getStatus(), e.getMessage());
+                    }
+                } catch (RuntimeException e) {
+                    LRALogger.logger.warnf(e, "LRAService.endLRAAsync: ending %s failed", lraId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            String errorMsg = String.format("%s: too many LRAs are waiting to be ended, try again later", lraId);
+            throw new ServiceUnavailableException(errorMsg);
+        }
+
+        return compensate ? LRAStatus.Cancelling : LRAStatus.Closing;
+    }
+
+    /**
+     * @return the executor that runs the participant protocol for asynchronously ended LRAs and begins
+     * the LRAs of batch start requests
+     */
+    public static MonitoredExecutor getTerminationExecutor() {
+        return terminationExecutor;
+    }
+
     public int leave(URI lraId, String compensatorUrl) {
         lraTrace(lraId, "leave LRA");
 
@@ -355,29 +833,8 @@ public class LRAService {
             timeLimit = 0;
         }
 
-        // the tx must be either Active (for participants with the @Compensate methods) or
-        // Closing/Canceling (for the AfterLRA listeners)
-        if (transaction.getLRAStatus() != LRAStatus.Active && !transaction.isRecovering()) {
-            // validate that the party wanting to join with this LRA is a listener only:
-            if (linkHeader != null) {
-                Matcher relMatcher = LINK_REL_PATTERN.matcher(linkHeader);
-
-                while (relMatcher.find()) {
-                    String key = relMatcher.group(1);
-
-                    if (key != null && key.equals("rel")) {
-                        String rel = relMatcher.group(2) == null ? relMatcher.group(3) : relMatcher.group(2);
-
-                        if (!LRAConstants.AFTER.equals(rel)) {
-                            // participants are not allowed to join inactive LRAs
-                            return Response.Status.PRECONDITION_FAILED.getStatusCode();
-                        } else if (!transaction.isRecovering()) {
-                            // listeners cannot be notified if the LRA has already ended
-                            return Response.Status.PRECONDITION_FAILED.getStatusCode();
-                        }
-                    }
-                }
-            }
+        if (isJoinRejected(transaction, linkHeader)) {
+            return Response.Status.PRECONDITION_FAILED.getStatusCode();
         }
 
         LRAParticipantRecord participant;
@@ -418,6 +875,92 @@ public class LRAService {
         return Response.Status.OK.getStatusCode();
     }
 
+    /**
+     * Enlist several participants with an LRA in one step: the LRA is locked once and written once for the
+     * whole batch. On success the recovery URL, and any data that the participant registered previously,
+     * is set on each enlistment. The batch is all or nothing: if one of the participants is rejected then
+     * none of them are enlisted.
+     *
+     * @return the HTTP status code of the request, {@code 200} if every participant was enlisted
+     */
+    public int joinLRAs(URI lra, long timeLimit, List<LRAParticipantEnlistment> enlistments,
+                        String recoveryUrlBase, String version) {
+        lraTrace(lra, "join LRA with several participants");
+
+        LongRunningAction transaction = getTransaction(lra);
+        List<String> links = new ArrayList<>(enlistments.size());
+        List<String> data = new ArrayList<>(enlistments.size());
+
+        for (LRAParticipantEnlistment enlistment : enlistments) {
+            if (enlistment.getLink() == null || enlistment.getLink().isEmpty()) {
+                return Response.Status.BAD_REQUEST.getStatusCode();
+            }
+
+            links.add(enlistment.getLink());
+            data.add(enlistment.getParticipantData());
+        }
+
+        List<LRAParticipantRecord> participants;
+
+        try {
+            // the status of the LRA is checked while it is locked so that a rejection discards the whole batch
+            participants = transaction.enlistParticipants(lra, links, link -> isJoinRejected(transaction, link),
+                    recoveryUrlBase, Math.max(timeLimit, 0), data, version);
+        } catch (WebApplicationException e) {
+            if (e.getResponse().getStatus() == Response.Status.PRECONDITION_FAILED.getStatusCode()) {
+                return Response.Status.PRECONDITION_FAILED.getStatusCode();
+            }
+
+            throw e;
+        }
+
+        for (int i = 0; i < participants.size(); i++) {
+            LRAParticipantRecord participant = participants.get(i);
+            LRAParticipantEnlistment enlistment = enlistments.get(i);
+            String recoveryURI = participant.getRecoveryURI().toASCIIString();
+
+            if (!updateRecoveryURI(lra, participant.getParticipantURI(), recoveryURI, false)) {
+                throw new ServiceUnavailableException(LRALogger.i18nLogger.warn_saveState("deactivate"));
+            }
+
+            enlistment.setRecoveryUrl(recoveryURI);
+            enlistment.setParticipantData(participant.getPreviousCompensatorData());
+        }
+
+        return Response.Status.OK.getStatusCode();
+    }
+
+    /*
+     * The tx must be either Active (for participants with the @Compensate methods) or
+     * Closing/Canceling (for the AfterLRA listeners)
+     */
+    private boolean isJoinRejected(LongRunningAction transaction, String linkHeader) {
+        if (transaction.getLRAStatus() != LRAStatus.Active && !transaction.isRecovering()) {
+            // validate that the party wanting to join with this LRA is a listener only:
+            if (linkHeader != null) {
+                Matcher relMatcher = LINK_REL_PATTERN.matcher(linkHeader);
+
+                while (relMatcher.find()) {
+                    String key = relMatcher.group(1);
+
+                    if (key != null && key.equals("rel")) {
+                        String rel = relMatcher.group(2) == null ? relMatcher.group(3) : relMatcher.group(2);
+
+                        if (!LRAConstants.AFTER.equals(rel)) {
+                            // participants are not allowed to join inactive LRAs
+                            return true;
+                        } else if (!transaction.isRecovering()) {
+                            // listeners cannot be notified if the LRA has already ended
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
     public boolean hasTransaction(URI id) {
         return id != null && (lras.containsKey(id) || recoveringLRAs.containsKey(id));
     }
@@ -453,11 +996,42 @@ public class LRAService {
     }
 
     public List<LRAData> getFailedLRAs() {
-        Map<URI, LongRunningAction> failedLRAs = new ConcurrentHashMap<>();
+        return new ArrayList<>(getRM().getFailedLRAs());
+    }
 
-        getRM().getFailedLRAs(failedLRAs);
+    /**
+     * Get a page of the failed LRAs in a given order. The page is selected from the failed LRA index
+     * of the recovery module so the failure records are not read.
+     *
+     * @param sort the order of the LRAs (see {@link #getPage(LRAStatus, String, String, int)})
+     * @param cursor the cursor (see {@link #getCursor(LRAData)}) of the last LRA of the previous page,
+     *               or null for the first page
+     * @param limit the maximum number of LRAs in the page
+     * @return the LRAs of the page, fewer than limit if it is the last page
+     * @throws IllegalArgumentException if the sort order, the cursor or the limit is not valid
+     */
+    public List<LRAData> getFailedPage(String sort, String cursor, int limit) {
+        return selectPage(getRM().getFailedLRAs().stream(), SortKey::of, sort, cursor, limit);
+    }
 
-        return failedLRAs.values().stream().map(LongRunningAction::getLRAData).collect(toList());
+    /**
+     * Read the failure record of an LRA from the store
+     *
+     * @param lraId the id of the failed LRA
+     * @return the current state of the failed LRA
+     * @throws NotFoundException if there is no failure record for the LRA
+     */
+    public LRAData getFailedLRA(URI lraId) throws NotFoundException {
+        String uid = LRAConstants.getLRAUid(lraId);
+        LRAData data = uid == null || uid.isEmpty() ? null : getRM().getFailedLRA(new Uid(uid));
+
+        if (data == null) {
+            String errorMsg = "No failure record for LRA id: " + lraId;
+            throw new NotFoundException(errorMsg, // 404
+                    Response.status(NOT_FOUND).entity(errorMsg).build());
+        }
+
+        return data;
     }
 
     private LRARecoveryModule getRM() {
@@ -469,8 +1043,34 @@ public class LRAService {
         return recoveryModule;
     }
 
-    private List<LRAData> getDataByStatus(Map<URI, LongRunningAction> lrasToFilter, LRAStatus status) {
-        return lrasToFilter.values().stream().filter(t -> t.getLRAStatus() == status)
-                .map(LongRunningAction::getLRAData).collect(toList());
+    // the position of an LRA in a paged listing
+    private static final class SortKey {
+        private final long startTime;
+        private final String id;
+
+        private SortKey(long startTime, String id) {
+            this.startTime = startTime;
+            this.id = id;
+        }
+
+        private static SortKey of(LongRunningAction lra) {
+            return new SortKey(lra.getStartTimeMillis(), lra.getId().toString());
+        }
+
+        private static SortKey of(LRAData lra) {
+            return new SortKey(lra.getStartTime(), lra.getLraId().toString());
+        }
+
+        // the inverse of getCursor
+        private static SortKey parse(String cursor) {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.indexOf(':');
+
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+
+            return new SortKey(Long.parseLong(key.substring(0, separator)), key.substring(separator + 1));
+        }
     }
-}
\ No newline at end of file
+}
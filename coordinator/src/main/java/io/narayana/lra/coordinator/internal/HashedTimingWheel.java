@@ -0,0 +1,449 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+
+   This file is derived from io.netty.util.HashedWheelTimer of The Netty Project
+   (https://netty.io/), Copyright 2012 The Netty Project, which is licensed under
+   the Apache License, Version 2.0. See the NOTICE file for the attribution.
+ */
+
+package io.narayana.lra.coordinator.internal;
+
+import io.narayana.lra.logging.LRALogger;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A hashed timing wheel for the time limits of LRAs.
+ *
+ * Timeouts are hashed into a fixed number of buckets according to their deadline and a single worker
+ * thread advances through the buckets once per tick. Scheduling and cancelling a timeout are O(1): new and
+ * cancelled timeouts are handed to the worker via lock free queues and the worker unlinks cancelled entries
+ * from their bucket. The price is that a timeout fires up to one tick after its deadline.
+ *
+ * The tasks of expired timeouts are handed to the dispatcher. A dispatcher that runs tasks on the calling
+ * thread must only be used for tasks that do not block (such as handing work over to another executor)
+ * since anything slow running on the worker thread delays all other expirations.
+ *
+ * The worker life cycle, the transfer of new timeouts to the buckets and the tick arithmetic are adapted
+ * from Netty's {@code HashedWheelTimer}.
+ */
+public class HashedTimingWheel {
+    private static final int WORKER_INIT = 0;
+    private static final int WORKER_STARTED = 1;
+    private static final int WORKER_SHUTDOWN = 2;
+
+    private static final int ST_INIT = 0;
+    private static final int ST_CANCELLED = 1;
+    private static final int ST_EXPIRED = 2;
+
+    // bound the number of new timeouts added to the wheel per tick so that a burst cannot hold up expiry
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final String name;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor dispatcher;
+    private final Thread workerThread;
+    private final AtomicInteger workerState = new AtomicInteger(WORKER_INIT);
+    private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingTimeouts = new AtomicLong();
+    private final LongAdder expiredTimeouts = new LongAdder();
+    private final AtomicLong maxFiringLag = new AtomicLong();
+    private volatile long lastFiringLag;
+    private volatile long startTime;
+    private long tick; // only accessed by the worker thread
+
+    /**
+     * @param name the name of the worker thread
+     * @param tickDuration the resolution of the timer
+     * @param unit the unit of tickDuration
+     * @param wheelSize the number of buckets, rounded up to a power of two
+     * @param dispatcher the executor that runs the tasks of expired timeouts
+     */
+    public HashedTimingWheel(String name, long tickDuration, TimeUnit unit, int wheelSize, Executor dispatcher) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize must be between 1 and 2^30: " + wheelSize);
+        }
+
+        int normalizedSize = 1;
+
+        while (normalizedSize < wheelSize) {
+            normalizedSize <<= 1;
+        }
+
+        this.name = name;
+        this.tickNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        this.wheel = new Bucket[normalizedSize];
+        this.mask = normalizedSize - 1;
+        this.dispatcher = Objects.requireNonNull(dispatcher, "dispatcher");
+
+        for (int i = 0; i < normalizedSize; i++) {
+            wheel[i] = new Bucket();
+        }
+
+        workerThread = new Thread(this::runWorker, name);
+        workerThread.setDaemon(true);
+    }
+
+    /**
+     * Schedule a task to run once the delay has elapsed.
+     *
+     * @param task the task to run
+     * @param delay the delay, a value less than or equal to zero expires on the next tick
+     * @param unit the unit of delay
+     * @return a handle for cancelling the timeout
+     * @throws RejectedExecutionException if the timer has been stopped
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Objects.requireNonNull(task, "task");
+
+        start();
+
+        long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+
+        if (delay > 0 && deadline < 0) {
+            deadline = Long.MAX_VALUE; // overflow
+        }
+
+        Timeout timeout = new Timeout(task, deadline);
+
+        pendingTimeouts.incrementAndGet();
+        newTimeouts.add(timeout);
+
+        return timeout;
+    }
+
+    /**
+     * Stop the worker thread. Timeouts that have not yet expired are discarded.
+     */
+    public void stop() {
+        if (workerState.getAndSet(WORKER_SHUTDOWN) == WORKER_STARTED) {
+            workerThread.interrupt();
+
+            try {
+                workerThread.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) * 10 + 100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the number of timeouts that have been scheduled but have neither expired nor been cancelled
+     */
+    public long getPendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    /**
+     * @return the number of timeouts that have expired since the timer was created
+     */
+    public long getExpiredTimeouts() {
+        return expiredTimeouts.sum();
+    }
+
+    /**
+     * @param unit the unit of the returned value
+     * @return how late, relative to its deadline, the most recently expired timeout was fired
+     */
+    public long getLastFiringLag(TimeUnit unit) {
+        return unit.convert(lastFiringLag, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit the unit of the returned value
+     * @return the largest firing lag observed since the timer was created
+     */
+    public long getMaxFiringLag(TimeUnit unit) {
+        return unit.convert(maxFiringLag.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit the unit of the returned value
+     * @return the resolution of the timer
+     */
+    public long getTickDuration(TimeUnit unit) {
+        return unit.convert(tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void start() {
+        switch (workerState.get()) {
+            case WORKER_INIT:
+                if (workerState.compareAndSet(WORKER_INIT, WORKER_STARTED)) {
+                    workerThread.start();
+                }
+                break;
+            case WORKER_STARTED:
+                break;
+            default:
+                throw new RejectedExecutionException(name + " has been stopped");
+        }
+
+        boolean interrupted = false;
+
+        while (startTime == 0) {
+            try {
+                startTimeInitialized.await();
+            } catch (InterruptedException e) {
+                // the worker is about to initialize startTime, keep waiting
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWorker() {
+        long now = System.nanoTime();
+
+        startTime = now == 0 ? 1 : now; // zero is used to mean not initialized
+        startTimeInitialized.countDown();
+
+        while (workerState.get() == WORKER_STARTED) {
+            long deadline = waitForNextTick();
+
+            if (deadline > 0) {
+                Bucket bucket = wheel[(int) (tick & mask)];
+
+                processCancelledTimeouts();
+                transferTimeoutsToBuckets();
+                bucket.expireTimeouts(deadline);
+                tick++;
+            }
+        }
+
+        if (LRALogger.logger.isDebugEnabled()) {
+            LRALogger.logger.debugf("%s stopped with %d pending timeouts", name, pendingTimeouts.get());
+        }
+    }
+
+    // returns the current time relative to startTime or a negative value if the timer was stopped
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+
+        for (;;) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepTimeMs = (deadline - currentTime + 999_999) / 1_000_000;
+
+            if (sleepTimeMs <= 0) {
+                return currentTime == Long.MIN_VALUE ? -Long.MAX_VALUE : currentTime;
+            }
+
+            try {
+                Thread.sleep(sleepTimeMs);
+            } catch (InterruptedException e) {
+                if (workerState.get() == WORKER_SHUTDOWN) {
+                    return Long.MIN_VALUE;
+                }
+            }
+        }
+    }
+
+    private void transferTimeoutsToBuckets() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = newTimeouts.poll();
+
+            if (timeout == null) {
+                break;
+            }
+
+            if (timeout.isCancelled()) {
+                // the pending count is adjusted when the cancellation is processed
+                continue;
+            }
+
+            long calculated = timeout.deadline / tickNanos;
+
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+
+            // timeouts whose deadline has already passed go into the current bucket
+            wheel[(int) (Math.max(calculated, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void processCancelledTimeouts() {
+        for (;;) {
+            Timeout timeout = cancelledTimeouts.poll();
+
+            if (timeout == null) {
+                break;
+            }
+
+            timeout.remove();
+        }
+    }
+
+    /**
+     * A handle to a scheduled task
+     */
+    public final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+        // the remaining number of wheel rotations before this timeout expires, only accessed by the worker
+        private long remainingRounds;
+
+        // the bucket holding this timeout and the links within it, only accessed by the worker
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+        private boolean released; // whether or not the timeout is still included in pendingTimeouts
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the timeout. The task will not run if this call returns true.
+         *
+         * @return false if the timeout has already expired or was cancelled
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+
+            // the worker removes the timeout from its bucket on the next tick
+            cancelledTimeouts.add(this);
+
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        private void remove() {
+            if (bucket != null) {
+                bucket.remove(this);
+            } else {
+                release();
+            }
+        }
+
+        private void run() {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LRALogger.logger.warnf(e, "%s: the task of an expired timeout failed", name);
+            }
+        }
+
+        private void release() {
+            if (!released) {
+                released = true;
+                pendingTimeouts.decrementAndGet();
+            }
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+
+            long lag = Math.max(0L, System.nanoTime() - startTime - deadline);
+
+            lastFiringLag = lag;
+            maxFiringLag.accumulateAndGet(lag, Math::max);
+            expiredTimeouts.increment();
+
+            try {
+                dispatcher.execute(this::run);
+            } catch (RejectedExecutionException e) {
+                LRALogger.logger.warnf("%s: the task of an expired timeout was rejected: %s", name, e.getMessage());
+            } catch (Throwable t) {
+                LRALogger.logger.warnf(t, "%s: unable to dispatch the task of an expired timeout", name);
+            }
+        }
+    }
+
+    // a doubly linked list of timeouts, only accessed by the worker thread
+    private final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void expireTimeouts(long deadline) {
+            Timeout timeout = head;
+
+            while (timeout != null) {
+                Timeout next = timeout.next;
+
+                if (timeout.isCancelled()) {
+                    next = remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    // the rounds are derived from the deadline so it has passed by now
+                    next = remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+
+                timeout = next;
+            }
+        }
+
+        private Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+
+            if (timeout == head) {
+                head = next;
+            }
+
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            timeout.release();
+
+            return next;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.internal;
+
+import io.narayana.lra.logging.LRALogger;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ParticipantInvoker} that uses a shared JAX-RS client. When the JAX-RS implementation is RESTEasy
+ * the client keeps a pool of connections to participants, whose usage is reported by the connection count
+ * methods. Select it with the system property
+ * {@code lra.coordinator.participant.invoker=io.narayana.lra.coordinator.internal.JaxRsParticipantInvoker}
+ */
+public class JaxRsParticipantInvoker implements ParticipantInvoker {
+    // the maximum number of pooled connections in total and to any one participant host
+    private static final int POOL_SIZE = Integer.getInteger("lra.coordinator.participant.pool.size", 100);
+    private static final int POOL_SIZE_PER_HOST = Integer.getInteger("lra.coordinator.participant.pool.size.per.host", 20);
+    // how long (in seconds) a pooled connection may be reused for
+    private static final long CONNECTION_TTL = Long.getLong("lra.coordinator.participant.connection.ttl", 60);
+
+    private final Client client;
+    // the connections of the client, null if they are managed by the JAX-RS implementation
+    private final PoolingHttpClientConnectionManager connections;
+
+    public JaxRsParticipantInvoker() {
+        ClientBuilder builder = ClientBuilder.newBuilder();
+        PoolingHttpClientConnectionManager pool = null;
+
+        try {
+            if (builder instanceof ResteasyClientBuilder) {
+                // build the pool here rather than through the builder so that its statistics can be read
+                pool = new PoolingHttpClientConnectionManager(CONNECTION_TTL, TimeUnit.SECONDS);
+                pool.setMaxTotal(POOL_SIZE);
+                pool.setDefaultMaxPerRoute(POOL_SIZE_PER_HOST);
+
+                ((ResteasyClientBuilder) builder).httpEngine(new ApacheHttpClient43Engine(
+                        HttpClientBuilder.create().setConnectionManager(pool).build(), true));
+            }
+        } catch (LinkageError e) {
+            // a different JAX-RS implementation, use its default connection management
+            pool = null;
+
+            if (LRALogger.logger.isDebugEnabled()) {
+                LRALogger.logger.debugf("JaxRsParticipantInvoker: cannot configure the connection pool: %s", e.getMessage());
+            }
+        }
+
+        connections = pool;
+        client = builder.build();
+    }
+
+    @Override
+    public CompletableFuture<ParticipantResponse> invoke(String method, URI target, Map<String, String> headers,
+                                                         String body) {
+        try {
+            Invocation.Builder builder = client.target(target).request();
+
+            headers.forEach(builder::header);
+
+            return (body == null ? builder.rx().method(method) : builder.rx().method(method, Entity.entity(body, MediaType.TEXT_PLAIN)))
+                    .thenApply(JaxRsParticipantInvoker::toParticipantResponse)
+                    .toCompletableFuture();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // read the body and close the response so that the connection goes back to the pool
+    private static ParticipantResponse toParticipantResponse(Response response) {
+        try (response) {
+            Map<String, String> headers = new HashMap<>();
+
+            response.getStringHeaders().forEach((name, values) -> {
+                if (!values.isEmpty()) {
+                    headers.put(name, values.get(0));
+                }
+            });
+
+            return new ParticipantResponse(response.getStatus(), headers,
+                    response.hasEntity() ? response.readEntity(String.class) : null);
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    /**
+     * @return the number of pooled connections that are carrying a request, or -1 if the connections are not
+     * pooled by this invoker
+     */
+    public int getLeasedConnectionCount() {
+        return connections == null ? -1 : connections.getTotalStats().getLeased();
+    }
+
+    /**
+     * @return the number of idle pooled connections that are kept alive for the next request, or -1 if the
+     * connections are not pooled by this invoker
+     */
+    public int getAvailableConnectionCount() {
+        return connections == null ? -1 : connections.getTotalStats().getAvailable();
+    }
+
+    /**
+     * @return the number of requests waiting for a pooled connection because the pool, or the share of the
+     * pool for the participant host, is in use, or -1 if the connections are not pooled by this invoker
+     */
+    public int getPendingConnectionCount() {
+        return connections == null ? -1 : connections.getTotalStats().getPending();
+    }
+
+    /**
+     * @return the maximum number of pooled connections, or -1 if the connections are not pooled by this invoker
+     */
+    public int getMaxConnectionCount() {
+        return connections == null ? -1 : connections.getTotalStats().getMax();
+    }
+}
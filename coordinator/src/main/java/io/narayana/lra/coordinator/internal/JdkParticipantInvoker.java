@@ -0,0 +1,141 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.internal;
+
+import io.narayana.lra.logging.LRALogger;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.narayana.lra.LRAConstants.PARTICIPANT_TIMEOUT;
+
+/**
+ * The default {@link ParticipantInvoker}, built on the JDK {@link HttpClient}. Requests are asynchronous and
+ * share the connections of one client: HTTP/1.1 connections are kept alive, so a few threads can serve many
+ * requests that are in progress at the same time. HTTP/2, which multiplexes concurrent requests over one
+ * connection, is used if the system property lra.coordinator.participant.http.version is HTTP_2, and then only
+ * with https participants that negotiate it: plain http requests stay on HTTP/1.1 rather than asking every
+ * participant to upgrade the connection.
+ */
+public class JdkParticipantInvoker implements ParticipantInvoker {
+    // the threads that complete the response futures (and so run any dependent actions)
+    private static final int THREADS = Integer.getInteger("lra.coordinator.participant.invoker.threads", 4);
+    private static final HttpClient.Version VERSION = HttpClient.Version.valueOf(
+            System.getProperty("lra.coordinator.participant.http.version", HttpClient.Version.HTTP_1_1.name()));
+
+    private final ExecutorService executor;
+    // null once the invoker has been closed
+    private volatile HttpClient client;
+
+    public JdkParticipantInvoker() {
+        AtomicInteger count = new AtomicInteger();
+
+        executor = Executors.newFixedThreadPool(THREADS, r -> {
+            Thread thread = new Thread(r, "lra-participant-invoker-" + count.incrementAndGet());
+
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        client = HttpClient.newBuilder()
+                .version(VERSION)
+                .connectTimeout(Duration.ofSeconds(PARTICIPANT_TIMEOUT))
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<ParticipantResponse> invoke(String method, URI target, Map<String, String> headers,
+                                                         String body) {
+        HttpClient c = client;
+
+        if (c == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("the participant invoker has been closed"));
+        }
+
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(target)
+                    .timeout(Duration.ofSeconds(PARTICIPANT_TIMEOUT));
+
+            if (!"https".equalsIgnoreCase(target.getScheme())) {
+                builder.version(HttpClient.Version.HTTP_1_1); // no h2c upgrade
+            }
+
+            headers.forEach(builder::header);
+
+            if (body == null) {
+                builder.method(method, HttpRequest.BodyPublishers.noBody());
+            } else {
+                builder.header("Content-Type", "text/plain")
+                        .method(method, HttpRequest.BodyPublishers.ofString(body));
+            }
+
+            CompletableFuture<HttpResponse<String>> exchange =
+                    c.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString());
+            CompletableFuture<ParticipantResponse> response = exchange.thenApply(r -> new ParticipantResponse(
+                    r.statusCode(), firstValues(r.headers()), r.body()));
+
+            // cancelling the derived future, or timing it out, does not reach the exchange so abort the request
+            // explicitly (cancelling an exchange that has already failed has no effect)
+            response.whenComplete((r, e) -> {
+                if (e != null) {
+                    exchange.cancel(true);
+                }
+            });
+
+            return response;
+        } catch (RuntimeException e) {
+            // an invalid target or header value is reported through the future like any other failure
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Map<String, String> firstValues(HttpHeaders headers) {
+        Map<String, String> values = new HashMap<>();
+
+        for (Map.Entry<String, List<String>> header : headers.map().entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                values.put(header.getKey(), header.getValue().get(0));
+            }
+        }
+
+        return values;
+    }
+
+    /*
+     * HttpClient can only be closed from Java 21, where it is AutoCloseable, and then waits for the requests
+     * in progress. On older JVMs dropping the client releases its selector thread and connections once the
+     * client is collected. In both cases the threads that complete the requests are stopped.
+     */
+    @Override
+    public void close() {
+        HttpClient c = client;
+
+        client = null;
+
+        try {
+            if (c instanceof AutoCloseable) {
+                ((AutoCloseable) c).close();
+            }
+        } catch (Exception e) {
+            LRALogger.logger.debugf(e, "JdkParticipantInvoker: closing the HTTP client failed");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.arjuna.ats.arjuna.common.Uid;
 import com.arjuna.ats.arjuna.common.recoveryPropertyManager;
 import com.arjuna.ats.arjuna.exceptions.ObjectStoreException;
 import com.arjuna.ats.arjuna.recovery.RecoveryManager;
+import io.narayana.lra.LRAData;
 import io.narayana.lra.logging.LRALogger;
 import com.arjuna.ats.arjuna.objectstore.RecoveryStore;
 import com.arjuna.ats.arjuna.objectstore.StateStatus;
@@ -23,13 +24,36 @@ import io.narayana.lra.coordinator.domain.service.LRAService;
 import org.eclipse.microprofile.lra.annotation.LRAStatus;
 
 import java.io.IOException;
-import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 public class LRARecoveryModule implements RecoveryModule {
+    // the defaults of the settings of a recovery pass (see setRecoveryThreads, setPassBudget and setFullScanInterval)
+    // the number of records that a recovery pass works on at the same time
+    private static final int RECOVERY_THREADS = Math.max(1, Integer.getInteger("lra.coordinator.recovery.threads", 4));
+    // how long (in milliseconds) a recovery pass may keep starting on new records, 0 means no limit
+    private static final long PASS_BUDGET =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("lra.coordinator.recovery.pass.budget", 0));
+    // the number of incremental passes between two passes that read every record in the store
+    private static final int FULL_SCAN_INTERVAL =
+            Math.max(1, Integer.getInteger("lra.coordinator.recovery.full.scan.interval", 10));
+    // recovers the records of a pass in parallel, each worker takes records from a shared iterator (see processTransactionsStatus)
+    private static final MonitoredExecutor recoveryExecutor = new MonitoredExecutor("lra-recovery",
+            RECOVERY_THREADS, RECOVERY_THREADS);
+
     public LRARecoveryModule() {
         service = new LRAService();
 
@@ -89,61 +113,194 @@ public class LRARecoveryModule implements RecoveryModule {
             LRALogger.logger.trace("LRARecoveryModule: second pass");
         }
 
-        recoverTransactions();
+        recoverTransactions(false);
     }
 
-    private synchronized void recoverTransactions() {
-         // uids per transaction type
-        InputObjectState aa_uids = new InputObjectState();
+    /*
+     * A pass normally only reads the records that are known to need recovery (see markDirty). Every
+     * fullScanInterval passes, and on the first pass, every record in the store is read instead
+     * in order to pick up records that were written by an earlier run of the coordinator or that
+     * were missed.
+     */
+    private synchronized void recoverTransactions(boolean fullScan) {
+        if (fullScan || lastFullScan < 0 || passCount.get() - lastFullScan >= fullScanInterval) {
+            // uids per transaction type
+            InputObjectState aa_uids = new InputObjectState();
+            // LRAs marked from now on may have been written after the store was listed so they stay marked
+            List<Uid> marked = new ArrayList<>(dirtyUids);
+
+            if (getUids(_transactionType, aa_uids)) {
+                lastFullScan = passCount.get();
+                fullScanCount.incrementAndGet();
+                dirtyUids.removeAll(marked); // they are all in the listing
+                processTransactionsStatus(processTransactions(aa_uids));
+            }
+
+            loadFailedLRAs(); // pick up failure records that were added or removed by other means
+
+        } else {
+            List<Uid> uids = new ArrayList<>(dirtyUids);
 
-        if (getUids(_transactionType, aa_uids)) {
-            processTransactionsStatus(processTransactions(aa_uids));
+            dirtyUids.removeAll(uids); // the ones that still need recovery afterwards are marked again
+            processTransactionsStatus(uids);
         }
     }
 
-    private void doRecoverTransaction(Uid recoverUid) {
+    /**
+     * Ask for an LRA to be recovered on the next pass, for example because it did not finish when it was ended.
+     *
+     * @param lraUid the uid of the log record of the LRA
+     */
+    public void markDirty(Uid lraUid) {
+        dirtyUids.add(lraUid);
+    }
+
+    /**
+     * @param lraUid the uid of the log record of an LRA
+     * @return true if the next incremental recovery pass will read the record
+     */
+    public boolean isDirty(Uid lraUid) {
+        return dirtyUids.contains(lraUid);
+    }
+
+    /**
+     * @return the number of LRA records that the next incremental recovery pass will read
+     */
+    public int getDirtyCount() {
+        return dirtyUids.size();
+    }
+
+    /**
+     * @return the number of LRA records that recovery did not restore because the LRA was live in memory
+     */
+    public long getAvoidedActivationCount() {
+        return avoidedActivations.sum();
+    }
+
+    /**
+     * Set how many records a recovery pass works on at the same time. The default is the value of the
+     * system property lra.coordinator.recovery.threads, which is also the size of the recovery executor
+     * and therefore the largest value that takes effect.
+     *
+     * @param recoveryThreads the number of records that are recovered in parallel
+     */
+    public void setRecoveryThreads(int recoveryThreads) {
+        this.recoveryThreads = Math.max(1, Math.min(recoveryThreads, RECOVERY_THREADS));
+    }
+
+    public int getRecoveryThreads() {
+        return recoveryThreads;
+    }
+
+    /**
+     * Set how long a recovery pass may keep starting on new records. The records that a pass does not reach
+     * are recovered first by the next pass. The default is the value in milliseconds of the system property
+     * lra.coordinator.recovery.pass.budget.
+     *
+     * @param budget how long a pass may start on new records, 0 means no limit
+     * @param unit the unit of the budget
+     */
+    public void setPassBudget(long budget, TimeUnit unit) {
+        this.passBudget = unit.toNanos(Math.max(0, budget));
+    }
+
+    public long getPassBudget(TimeUnit unit) {
+        return unit.convert(passBudget, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Set the number of incremental recovery passes between two passes that read every record in the store.
+     * The default is the value of the system property lra.coordinator.recovery.full.scan.interval.
+     *
+     * @param fullScanInterval the number of passes from one full scan to the next
+     */
+    public void setFullScanInterval(int fullScanInterval) {
+        this.fullScanInterval = Math.max(1, fullScanInterval);
+    }
+
+    public int getFullScanInterval() {
+        return fullScanInterval;
+    }
+
+    /**
+     * @return the number of passes that have read every LRA record in the store
+     */
+    public int getFullScanCount() {
+        return fullScanCount.get();
+    }
+
+    // returns true if the LRA still needs recovery, throws an exception if the record could not be recovered
+    private boolean doRecoverTransaction(Uid recoverUid) {
+        LongRunningAction live = service.lookupTransaction(recoverUid);
+
+        // do not restore a second copy of an LRA that is in flight or that another thread is ending
+        if (live != null && (live.getLRAStatus() == LRAStatus.Active || service.isLocked(live.getId()))) {
+            avoidedActivations.increment();
+
+            return live.getLRAStatus() != LRAStatus.Active; // look again once it has been ended
+        }
+
         // Retrieve the transaction status from its original process.
-        int theStatus = _transactionStatusConnectionMgr.getTransactionStatus(_transactionType, recoverUid);
+        int theStatus;
 
-        try {
-            RecoveringLRA lra = new RecoveringLRA(service, recoverUid, theStatus);
-            boolean inFlight = (lra.getLRAStatus() == LRAStatus.Active);
+        synchronized (_transactionStatusConnectionMgr) { // records are recovered in parallel (see processTransactionsStatus)
+            theStatus = _transactionStatusConnectionMgr.getTransactionStatus(_transactionType, recoverUid);
+        }
 
-            LRAStatus lraStatus = lra.getLRAStatus();
-            if (LRAStatus.FailedToCancel.equals(lraStatus) || LRAStatus.FailedToClose.equals(lraStatus)) {
-                moveEntryToFailedLRAPath(recoverUid);
-                return;
-            }
+        RecoveringLRA lra = new RecoveringLRA(service, recoverUid, theStatus);
 
-            if (!service.hasTransaction(lra.getId())) {
-                // make sure LRAService knows about it
-                service.addTransaction(lra);
-            }
+        if (!lra.isActivated()) {
+            throw new IllegalStateException("the state of the record could not be restored");
+        }
 
-            if (LRALogger.logger.isDebugEnabled()) {
-                LRALogger.logger.debug("LRARecoverModule: transaction type is " + _transactionType + " uid is " +
-                        recoverUid.toString() + "\n Status is " + lraStatus +
-                        " in flight is " + inFlight);
-            }
+        boolean inFlight = (lra.getLRAStatus() == LRAStatus.Active);
 
-            if (!inFlight && lra.hasPendingActions()) {
-                lra.replayPhase2();
+        LRAStatus lraStatus = lra.getLRAStatus();
+        if (LRAStatus.FailedToCancel.equals(lraStatus) || LRAStatus.FailedToClose.equals(lraStatus)) {
+            moveEntryToFailedLRAPath(lra);
+            return false;
+        }
 
-                if (!lra.isRecovering()) {
-                    service.finished(lra, false);
-                }
-            }
+        if (!service.hasTransaction(lra.getId())) {
+            // make sure LRAService knows about it
+            service.addTransaction(lra);
+        }
 
-        } catch (Exception e) {
-            if (LRALogger.logger.isInfoEnabled()) {
-                LRALogger.logger.infof(
-                        "LRARecoverModule: Error '%s' while recovering LRA record %s",
-                        e.getMessage(), recoverUid.fileStringForm());
+        if (LRALogger.logger.isDebugEnabled()) {
+            LRALogger.logger.debug("LRARecoverModule: transaction type is " + _transactionType + " uid is " +
+                    recoverUid.toString() + "\n Status is " + lraStatus +
+                    " in flight is " + inFlight);
+        }
+
+        if (!inFlight && lra.hasPendingActions()) {
+            lra.replayPhase2();
+
+            if (!lra.isRecovering()) {
+                service.finished(lra, false);
+                return false;
             }
         }
+
+        // an active LRA does not need recovery until it is ended
+        return !inFlight && lra.isRecovering();
+    }
+
+    /**
+     * Move the record of a failed LRA to the failed LRA location and add it to the failed LRA index
+     *
+     * @param failedLRA the LRA that has failed
+     * @return true if the record is in the failed LRA location and no longer in the LRA location
+     */
+    public boolean moveEntryToFailedLRAPath(LongRunningAction failedLRA) {
+        return moveEntryToFailedLRAPath(failedLRA.get_uid(), failedLRA.getLRAData());
     }
 
     public boolean moveEntryToFailedLRAPath (final Uid failedUid) {
+        return moveEntryToFailedLRAPath(failedUid, null);
+    }
+
+    // the failed LRA index is given the data of the LRA if it is known, otherwise the moved record is read
+    private boolean moveEntryToFailedLRAPath(final Uid failedUid, LRAData failedLRA) {
         String failedLRAType = FailedLongRunningAction.FAILED_LRA_TYPE;
         boolean moved = false;
         try {
@@ -158,6 +315,7 @@ public class LRARecoveryModule implements RecoveryModule {
                                 failedUid.toString(), failedLRAType, _transactionType);
                         moved = false;
                     }
+                    indexFailedLRA(failedUid, failedLRA);
                     return moved;
                 }
 
@@ -166,6 +324,7 @@ public class LRARecoveryModule implements RecoveryModule {
                     if (moved) {
                         LRALogger.logger.infof("Failed lra record (Uid: %s) moved to new location type: %s", failedUid, failedLRAType);
                     }
+                    indexFailedLRA(failedUid, failedLRA);
                 }
             }
         } catch (ObjectStoreException e) {
@@ -189,24 +348,157 @@ public class LRARecoveryModule implements RecoveryModule {
     }
 
     private void processTransactionsStatus(Collection<Uid> uids) {
-        // Process the collection of transaction Uids
-        uids.forEach(uid -> {
-            try {
-                if (_recoveryStore.currentState(uid, _transactionType) != StateStatus.OS_UNKNOWN) {
-                    doRecoverTransaction(uid);
+        long budget = passBudget;
+        long start = System.nanoTime();
+        long deadline = start + budget;
+        List<Uid> ordered = new ArrayList<>(uids.size());
+
+        // records that were deferred by the previous pass go first so that a budget cannot starve them
+        uids.stream().filter(deferredUids::contains).forEach(ordered::add);
+        uids.stream().filter(uid -> !deferredUids.contains(uid)).forEach(ordered::add);
+
+        Iterator<Uid> pending = ordered.iterator();
+        Set<Uid> deferred = ConcurrentHashMap.newKeySet();
+        AtomicInteger recovered = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        // each worker recovers one record at a time, so a slow participant only holds up its own worker
+        Runnable worker = () -> {
+            boolean started = false; // a worker always takes one record so that every pass makes progress
+            Uid uid;
+
+            while ((uid = next(pending)) != null) {
+                if (started && budget > 0 && System.nanoTime() - deadline > 0) {
+                    deferred.add(uid); // over budget, leave the rest for the next pass
+                    dirtyUids.add(uid);
+                    continue;
                 }
-            } catch (ObjectStoreException e) {
-                if (LRALogger.logger.isTraceEnabled()) {
-                    LRALogger.logger.tracef(e,
-                            "LRARecoverModule: Object store exception '%s' while reading the current state of LRA record %s:",
-                            e.getMessage(), uid.fileStringForm());
-                } else if (LRALogger.logger.isInfoEnabled()) {
-                    LRALogger.logger.infof(
-                            "LRARecoverModule: Object store exception '%s' while reading the current state of LRA record %s",
-                            e.getMessage(), uid.fileStringForm());
+
+                started = true;
+
+                if (recoverUid(uid)) {
+                    recovered.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                    dirtyUids.add(uid); // try again on the next pass
                 }
             }
-        });
+        };
+
+        int workers = Math.min(recoveryThreads, ordered.size());
+        List<CompletableFuture<Void>> running = new ArrayList<>(workers);
+
+        for (int i = 0; i < workers; i++) {
+            try {
+                running.add(CompletableFuture.runAsync(worker, recoveryExecutor));
+            } catch (RejectedExecutionException e) {
+                worker.run(); // the executor is saturated or shut down so help out on the calling thread
+            }
+        }
+
+        running.forEach(CompletableFuture::join);
+
+        deferredUids = new HashSet<>(deferred);
+        lastPassDuration = System.nanoTime() - start;
+        lastPassRecordCount = recovered.get();
+        lastPassFailureCount = failed.get();
+        lastPassDeferredCount = deferred.size();
+        passCount.incrementAndGet();
+
+        if (LRALogger.logger.isDebugEnabled()) {
+            LRALogger.logger.debugf("LRARecoveryModule: pass recovered %d records (%d failed, %d deferred) in %d ms (%d records/s)",
+                    lastPassRecordCount, lastPassFailureCount, lastPassDeferredCount,
+                    getLastPassDuration(TimeUnit.MILLISECONDS), getLastPassRecordsPerSecond());
+        }
+    }
+
+    private static Uid next(Iterator<Uid> uids) {
+        synchronized (uids) {
+            return uids.hasNext() ? uids.next() : null;
+        }
+    }
+
+    // recover one record, any failure is confined to that record and it will be retried on the next pass
+    // returns false if the record could not be recovered
+    private boolean recoverUid(Uid uid) {
+        try {
+            if (_recoveryStore.currentState(uid, _transactionType) != StateStatus.OS_UNKNOWN
+                    && doRecoverTransaction(uid)) {
+                dirtyUids.add(uid); // the LRA has not finished yet
+            }
+
+            return true;
+        } catch (ObjectStoreException e) {
+            if (LRALogger.logger.isTraceEnabled()) {
+                LRALogger.logger.tracef(e,
+                        "LRARecoverModule: Object store exception '%s' while reading the current state of LRA record %s:",
+                        e.getMessage(), uid.fileStringForm());
+            } else if (LRALogger.logger.isInfoEnabled()) {
+                LRALogger.logger.infof(
+                        "LRARecoverModule: Object store exception '%s' while reading the current state of LRA record %s",
+                        e.getMessage(), uid.fileStringForm());
+            }
+        } catch (RuntimeException e) {
+            if (LRALogger.logger.isInfoEnabled()) {
+                LRALogger.logger.infof(
+                        "LRARecoverModule: Error '%s' while recovering LRA record %s",
+                        e.getMessage(), uid.fileStringForm());
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the number of recovery passes that have completed
+     */
+    public int getPassCount() {
+        return passCount.get();
+    }
+
+    /**
+     * @param unit the unit of the returned value
+     * @return how long the most recent recovery pass took
+     */
+    public long getLastPassDuration(TimeUnit unit) {
+        return unit.convert(lastPassDuration, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the number of records that the most recent recovery pass processed
+     */
+    public int getLastPassRecordCount() {
+        return lastPassRecordCount;
+    }
+
+    /**
+     * @return the number of records that the most recent recovery pass could not process (they are retried on the next pass)
+     */
+    public int getLastPassFailureCount() {
+        return lastPassFailureCount;
+    }
+
+    /**
+     * @return the number of records that the most recent recovery pass left for the next one because its time budget ran out
+     */
+    public int getLastPassDeferredCount() {
+        return lastPassDeferredCount;
+    }
+
+    /**
+     * @return the rate at which the most recent recovery pass processed records
+     */
+    public long getLastPassRecordsPerSecond() {
+        long duration = lastPassDuration;
+
+        return duration == 0 ? 0 : lastPassRecordCount * TimeUnit.SECONDS.toNanos(1) / duration;
+    }
+
+    /**
+     * @return the executor that recovers the records of a pass
+     */
+    public static MonitoredExecutor getRecoveryExecutor() {
+        return recoveryExecutor;
     }
 
     /**
@@ -233,27 +525,97 @@ public class LRARecoveryModule implements RecoveryModule {
         return false;
     }
 
+    /**
+     * Run a recovery pass that reads every LRA record in the store
+     */
     public void recover() {
-        recoverTransactions();
+        recoverTransactions(true);
     }
 
-    public void getFailedLRAs(Map<URI, LongRunningAction> lras) {
-        InputObjectState aa_uids = new InputObjectState();
-        Consumer<Uid> failedLRACreator = uid -> {
-            FailedLongRunningAction lra = new FailedLongRunningAction(service, new Uid(uid));
-            lra.activate();
+    /**
+     * The failed LRAs are listed from an index that holds a summary of each failure record. The index is
+     * built from the store the first time that it is needed, is updated when a record is moved to the
+     * failed LRA location and is checked against the store on every recovery pass that reads every record.
+     *
+     * @return the summaries of the failed LRAs
+     */
+    public Collection<LRAData> getFailedLRAs() {
+        if (!failedLRAsLoaded) {
+            loadFailedLRAs();
+        }
 
-            LRAStatus status = lra.getLRAStatus();
-            if (LRAStatus.FailedToCancel.equals(status) || LRAStatus.FailedToClose.equals(status)) {
-                lras.put(lra.getId(), lra);
-            }
-        };
+        return Collections.unmodifiableCollection(failedLRAs.values());
+    }
+
+    /**
+     * @return the number of failed LRAs in the failed LRA index
+     */
+    public int getFailedLRACount() {
+        getFailedLRAs();
+
+        return failedLRAs.size();
+    }
+
+    /**
+     * Read the full state of a failed LRA from its failure record
+     *
+     * @param lraUid the uid of the log record of the LRA
+     * @return the state of the LRA, or null if there is no failure record for it
+     */
+    public LRAData getFailedLRA(Uid lraUid) {
+        LRAData data = readFailedLRA(lraUid);
+
+        if (data == null) {
+            failedLRAs.remove(lraUid); // the record was removed without going through the index
+        } else {
+            failedLRAs.put(lraUid, data);
+        }
+
+        return data;
+    }
+
+    // bring the failed LRA index into line with the failure records in the store
+    private synchronized void loadFailedLRAs() {
+        InputObjectState aa_uids = new InputObjectState();
+        // LRAs indexed from now on may have been moved after the store was listed so they are kept
+        Set<Uid> indexed = new HashSet<>(failedLRAs.keySet());
+        Set<Uid> stored = new HashSet<>();
 
         if (getUids(FailedLongRunningAction.FAILED_LRA_TYPE, aa_uids)) {
-            forEach(aa_uids, failedLRACreator, FailedLongRunningAction.FAILED_LRA_TYPE);
+            forEach(aa_uids, stored::add, FailedLongRunningAction.FAILED_LRA_TYPE);
+
+            // only the records that the index does not know about yet are read
+            stored.stream().filter(uid -> !failedLRAs.containsKey(uid)).forEach(uid -> indexFailedLRA(uid, null));
+            indexed.stream().filter(uid -> !stored.contains(uid)).forEach(failedLRAs::remove);
+            failedLRAsLoaded = true;
         }
     }
 
+    private void indexFailedLRA(Uid failedUid, LRAData failedLRA) {
+        LRAData data = failedLRA != null ? failedLRA : readFailedLRA(failedUid);
+
+        if (data != null) {
+            failedLRAs.put(failedUid, data);
+        }
+    }
+
+    // returns null if there is no failure record for the uid or the LRA in it has not failed
+    private LRAData readFailedLRA(Uid failedUid) {
+        FailedLongRunningAction lra = new FailedLongRunningAction(service, new Uid(failedUid));
+
+        if (!lra.activate()) {
+            return null;
+        }
+
+        LRAStatus status = lra.getLRAStatus();
+
+        if (LRAStatus.FailedToCancel.equals(status) || LRAStatus.FailedToClose.equals(status)) {
+            return lra.getLRAData();
+        }
+
+        return null;
+    }
+
     private boolean getUids(final String type, InputObjectState aa_uids) {
         synchronized (this) {
             try {
@@ -325,4 +687,23 @@ public class LRARecoveryModule implements RecoveryModule {
     private final TransactionStatusConnectionManager _transactionStatusConnectionMgr;
 
     private static LRARecoveryModule lraRecoveryModule;
+
+    // the records that were not reached in the previous pass because the time budget ran out
+    private Set<Uid> deferredUids = Set.of();
+    // the LRAs that the next incremental pass should recover
+    private final Set<Uid> dirtyUids = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger fullScanCount = new AtomicInteger();
+    private final LongAdder avoidedActivations = new LongAdder();
+    // a summary of each failure record, keyed by the uid of the record (see getFailedLRAs)
+    private final Map<Uid, LRAData> failedLRAs = new ConcurrentHashMap<>();
+    private volatile boolean failedLRAsLoaded;
+    private int lastFullScan = -1; // the pass count at the most recent full scan, guarded by the recoverTransactions monitor
+    private final AtomicInteger passCount = new AtomicInteger();
+    private volatile long lastPassDuration; // nanoseconds
+    private volatile int lastPassRecordCount;
+    private volatile int lastPassFailureCount;
+    private volatile int lastPassDeferredCount;
+    private volatile int recoveryThreads = RECOVERY_THREADS;
+    private volatile long passBudget = PASS_BUDGET; // nanoseconds
+    private volatile int fullScanInterval = FULL_SCAN_INTERVAL;
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.internal;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size thread pool with a bounded work queue that reports how many tasks are waiting,
+ * how long they waited before a worker picked them up and how many were rejected because
+ * the queue was full.
+ */
+public class MonitoredExecutor extends ThreadPoolExecutor {
+    private final LongAdder rejectedTasks = new LongAdder();
+    private final LongAdder completedTasks = new LongAdder();
+    private final AtomicLong maxQueueLag = new AtomicLong();
+    private volatile long lastQueueLag;
+
+    /**
+     * @param name the prefix of the names of the (daemon) worker threads
+     * @param threads the number of worker threads
+     * @param queueCapacity the maximum number of tasks that can wait for a worker
+     */
+    public MonitoredExecutor(String name, int threads, int queueCapacity) {
+        super(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new NamedThreadFactory(name), new AbortPolicy());
+
+        allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            super.execute(new QueuedTask(command));
+        } catch (RejectedExecutionException e) {
+            rejectedTasks.increment();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+
+        if (r instanceof QueuedTask) {
+            long lag = System.nanoTime() - ((QueuedTask) r).queuedAt;
+
+            lastQueueLag = lag;
+            maxQueueLag.accumulateAndGet(lag, Math::max);
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        completedTasks.increment();
+    }
+
+    /**
+     * @return the number of tasks waiting for a worker thread
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * @return the number of tasks that were rejected because the queue was full (or the executor was shut down)
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTasks.sum();
+    }
+
+    /**
+     * @return the number of tasks that have finished running
+     */
+    public long getFinishedTaskCount() {
+        return completedTasks.sum();
+    }
+
+    /**
+     * @param unit the unit of the returned value
+     * @return how long the most recently started task waited in the queue
+     */
+    public long getLastQueueLag(TimeUnit unit) {
+        return unit.convert(lastQueueLag, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit the unit of the returned value
+     * @return the longest time a task has waited in the queue
+     */
+    public long getMaxQueueLag(TimeUnit unit) {
+        return unit.convert(maxQueueLag.get(), TimeUnit.NANOSECONDS);
+    }
+
+    private static final class QueuedTask implements Runnable {
+        private final Runnable task;
+        private final long queuedAt = System.nanoTime();
+
+        private QueuedTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.internal;
+
+import io.narayana.lra.logging.LRALogger;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.narayana.lra.LRAConstants.PARTICIPANT_TIMEOUT;
+
+/**
+ * The entry point that the coordinator uses to call participants. A single {@link ParticipantInvoker} is
+ * shared by all LRAs so that connections to participants are reused between calls instead of being opened
+ * (and for TLS negotiated) for every complete, compensate, status, forget and after request.
+ * The invoker is created on first use and closed when the coordinator is undeployed.
+ */
+public final class ParticipantClient {
+    private static final String INVOKER_PROPERTY = "lra.coordinator.participant.invoker";
+
+    private static final LongAdder requests = new LongAdder();
+    private static final LongAdder failedRequests = new LongAdder();
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peakInFlight = new AtomicInteger();
+    private static volatile ParticipantInvoker invoker;
+
+    private ParticipantClient() {
+    }
+
+    /**
+     * Send a request to a participant without waiting for the response. If the participant does not respond
+     * within {@link io.narayana.lra.LRAConstants#PARTICIPANT_TIMEOUT} seconds the future completes with a
+     * {@link java.util.concurrent.TimeoutException} and the request is abandoned.
+     *
+     * @param method the HTTP method
+     * @param target the participant endpoint
+     * @param headers the request headers
+     * @param body the text body of the request or null if the request has no body
+     * @return a future that completes with the response from the participant
+     */
+    public static CompletableFuture<ParticipantResponse> invokeAsync(String method, URI target,
+                                                                     Map<String, String> headers, String body) {
+        int current = inFlight.incrementAndGet();
+
+        peakInFlight.accumulateAndGet(current, Math::max);
+        requests.increment();
+
+        return getInvoker().invoke(method, target, headers, body)
+                .orTimeout(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS)
+                .whenComplete((response, failure) -> {
+                    inFlight.decrementAndGet();
+
+                    if (failure != null) {
+                        failedRequests.increment();
+                    }
+                });
+    }
+
+    /**
+     * Send a request to a participant and wait for the response, for callers that need the response on the
+     * calling thread. Callers that can act on the response later should use {@link #invokeAsync} instead.
+     *
+     * @param method the HTTP method
+     * @param target the participant endpoint
+     * @param headers the request headers
+     * @param body the text body of the request or null if the request has no body
+     * @return the response from the participant
+     * @throws ExecutionException if there was no response, the cause is a {@link java.util.concurrent.TimeoutException}
+     * if the participant did not respond in time
+     */
+    public static ParticipantResponse invoke(String method, URI target, Map<String, String> headers, String body)
+            throws InterruptedException, ExecutionException {
+        CompletableFuture<ParticipantResponse> response = invokeAsync(method, target, headers, body);
+
+        try {
+            return response.get(); // bounded by the timeout of invokeAsync
+        } catch (InterruptedException e) {
+            response.cancel(true);
+
+            throw e;
+        }
+    }
+
+    private static ParticipantInvoker getInvoker() {
+        ParticipantInvoker i = invoker;
+
+        if (i == null) {
+            synchronized (ParticipantClient.class) {
+                i = invoker;
+
+                if (i == null) {
+                    invoker = i = newInvoker();
+                }
+            }
+        }
+
+        return i;
+    }
+
+    private static ParticipantInvoker newInvoker() {
+        String className = System.getProperty(INVOKER_PROPERTY);
+
+        if (className != null) {
+            try {
+                return (ParticipantInvoker) Class.forName(className, true, ParticipantClient.class.getClassLoader())
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                LRALogger.logger.warnf(e, "ParticipantClient: cannot create participant invoker %s, using the default",
+                        className);
+            }
+        } else {
+            Iterator<ParticipantInvoker> providers =
+                    ServiceLoader.load(ParticipantInvoker.class, ParticipantClient.class.getClassLoader()).iterator();
+
+            if (providers.hasNext()) {
+                return providers.next();
+            }
+        }
+
+        return new JdkParticipantInvoker();
+    }
+
+    /**
+     * Close the shared invoker and release its connections. A new invoker is created if participants
+     * are called again afterwards.
+     */
+    public static void close() {
+        ParticipantInvoker i;
+
+        synchronized (ParticipantClient.class) {
+            i = invoker;
+            invoker = null;
+        }
+
+        if (i != null) {
+            i.close();
+        }
+    }
+
+    /**
+     * @return the invoker that is used to call participants
+     */
+    public static ParticipantInvoker getParticipantInvoker() {
+        return getInvoker();
+    }
+
+    /**
+     * @return the number of participant requests that have been sent
+     */
+    public static long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of participant requests that failed or timed out without a response
+     */
+    public static long getFailedRequestCount() {
+        return failedRequests.sum();
+    }
+
+    /**
+     * @return the number of participant requests that are waiting for a response
+     */
+    public static int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the largest number of participant requests that have been waiting for a response at the same time
+     */
+    public static int getPeakInFlightCount() {
+        return peakInFlight.get();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.internal;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The transport that the coordinator uses to send complete, compensate, status, forget and after requests
+ * to participants. Implementations must not block the calling thread while the request is in progress.
+ * <p>
+ * The implementation is chosen by {@link ParticipantClient}: the class named by the system property
+ * {@code lra.coordinator.participant.invoker}, otherwise the first implementation registered with
+ * {@link java.util.ServiceLoader}, otherwise {@link JdkParticipantInvoker}.
+ * Implementations need a public no-argument constructor.
+ */
+public interface ParticipantInvoker {
+    /**
+     * Send a request to a participant.
+     *
+     * @param method the HTTP method
+     * @param target the participant endpoint
+     * @param headers the request headers
+     * @param body the text body of the request or null if the request has no body
+     * @return a future that completes with the response of the participant, or exceptionally if no response was received
+     */
+    CompletableFuture<ParticipantResponse> invoke(String method, URI target, Map<String, String> headers, String body);
+
+    /**
+     * Release any resources, such as pooled connections, held by the invoker
+     */
+    default void close() {
+    }
+}
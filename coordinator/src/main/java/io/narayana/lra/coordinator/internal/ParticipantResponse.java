@@ -0,0 +1,53 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.internal;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The response of a participant to a request made through a {@link ParticipantInvoker}.
+ * The body has already been read so the response does not hold on to a connection.
+ */
+public final class ParticipantResponse {
+    private final int status;
+    private final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final String entity;
+
+    /**
+     * @param status the HTTP status code
+     * @param headers the response headers, only the first value of each header is kept
+     * @param entity the body of the response or null if there was no body
+     */
+    public ParticipantResponse(int status, Map<String, String> headers, String entity) {
+        this.status = status;
+        this.entity = entity;
+
+        if (headers != null) {
+            this.headers.putAll(headers);
+        }
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @param name the name of the header (case insensitive)
+     * @return the value of the header or null if the response did not include it
+     */
+    public String getHeaderString(String name) {
+        return headers.get(name);
+    }
+
+    public boolean hasEntity() {
+        return entity != null && !entity.isEmpty();
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+}
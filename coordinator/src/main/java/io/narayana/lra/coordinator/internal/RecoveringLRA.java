@@ -30,6 +30,11 @@ class RecoveringLRA extends LongRunningAction {
         return _activated;
     }
 
+    @Override
+    public boolean isReplay() {
+        return true;
+    }
+
     public void replayPhase2() {
         // protect against recovery and application threads both trying to finish the LRA
         ReentrantLock lock = tryLockTransaction();
@@ -25,16 +25,23 @@ import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import com.arjuna.ats.arjuna.common.Uid;
 import com.arjuna.ats.arjuna.exceptions.ObjectStoreException;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -59,10 +66,13 @@ import org.junit.Test;
 import org.junit.rules.TestName;
 
 import io.narayana.lra.LRAData;
+import io.narayana.lra.LRAStartRequest;
+import io.narayana.lra.client.internal.CoordinatorClientPool;
 import io.narayana.lra.client.internal.NarayanaLRAClient;
 import io.narayana.lra.coordinator.api.Coordinator;
 import io.narayana.lra.coordinator.domain.service.LRAService;
 import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import io.narayana.lra.coordinator.internal.ParticipantClient;
 import io.narayana.lra.filter.ServerLRAFilter;
 import io.narayana.lra.logging.LRALogger;
 import io.narayana.lra.provider.ParticipantStatusOctetStreamProvider;
@@ -77,6 +87,7 @@ import jakarta.ws.rs.core.Application;
 import jakarta.ws.rs.core.Link;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriBuilder;
 import org.junit.runner.RunWith;
 
 @RunWith(BMUnitRunner.class)
@@ -101,6 +112,8 @@ public class LRATest extends LRATestBase {
             classes.add(Participant.class);
             classes.add(Participant1.class);
             classes.add(Participant2.class);
+            classes.add(FailingParticipant.class);
+            classes.add(SlowParticipant.class);
             classes.add(AfterLRAListener.class);
             classes.add(ServerLRAFilter.class);
             classes.add(ParticipantStatusOctetStreamProvider.class);
@@ -277,6 +290,285 @@ public class LRATest extends LRATestBase {
         queue.remove(); // clean up item from participant1 (the remaining integer on the queue)
     }
 
+    /*
+     * verify that an LRA that allows its participants to be ended concurrently closes in about the time
+     * of its slowest participant and that every participant is still completed
+     */
+    @Test
+    public void testParallelTermination() {
+        int count = 4;
+        URI lraId = startWithSlowParticipants(count);
+
+        service.getTransaction(lraId).setTerminationParallelism(count);
+
+        long start = System.nanoTime();
+
+        lraClient.closeLRA(lraId);
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("every participant should have completed",
+                Set.of(1, 2, 3, 4), new HashSet<>(queue));
+        assertTrue(String.format("closing took %d ms which is as slow as ending the participants one at a time",
+                        elapsed),
+                elapsed < (count - 1) * SlowParticipant.DELAY);
+        assertFalse("the closed LRA should have been forgotten", service.hasTransaction(lraId));
+    }
+
+    /*
+     * verify that, unless an LRA asks for more, its participants are ended one at a time in reverse order
+     * of enlistment
+     */
+    @Test
+    public void testDefaultTerminationOrder() {
+        int count = 3;
+        URI lraId = startWithSlowParticipants(count);
+
+        assertEquals("participants should be ended one at a time by default",
+                1, service.getTransaction(lraId).getTerminationParallelism());
+
+        lraClient.cancelLRA(lraId);
+
+        assertEquals("participants should be compensated in reverse order of enlistment",
+                List.of(3, 2, 1), new ArrayList<>(queue));
+    }
+
+    // start an LRA and enlist slow participants with the ids 1 to count
+    private URI startWithSlowParticipants(int count) {
+        queue.clear();
+
+        URI lraId = lraClient.startLRA(testName.getMethodName());
+
+        for (int i = 1; i <= count; i++) {
+            String participant = TestPortProvider.generateURL("/base/slow-participant/" + i);
+
+            lraClient.joinLRA(lraId, 0L, URI.create(participant + "/compensate"), URI.create(participant + "/complete"),
+                    null, null, null, null, (String) null);
+        }
+
+        return lraId;
+    }
+
+    /*
+     * verify that a close request that asks the coordinator to respond asynchronously returns before
+     * the participants are completed and that the LRA status can be polled until it has finished
+     */
+    @Test
+    public void testAsyncClose() throws InterruptedException {
+        queue.clear();
+
+        URI lraId = lraClient.startLRA(testName.getMethodName());
+
+        try (Response r = client.target(TestPortProvider.generateURL("/base/participant1/continue")).request()
+                .header(LRA_HTTP_CONTEXT_HEADER, lraId).get()) {
+            assertEquals("could not reach participant1", OK.getStatusCode(), r.getStatus());
+        }
+
+        URI statusUri = lraClient.beginCloseLRA(lraId);
+
+        assertEquals("the status location should reference the LRA", lraId + "/status", statusUri.toString());
+
+        // poll the status until the LRA is no longer known to the coordinator or has reached a final state
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        String status = null;
+
+        while (System.currentTimeMillis() < deadline) {
+            try (Response r = client.target(statusUri).request().get()) {
+                if (r.getStatus() != OK.getStatusCode()) {
+                    break;
+                }
+
+                status = r.readEntity(String.class);
+
+                if (!LRAStatus.Active.name().equals(status) && !LRAStatus.Closing.name().equals(status)) {
+                    break;
+                }
+            }
+
+            Thread.sleep(10);
+        }
+
+        assertNotEquals("the LRA did not finish closing", LRAStatus.Closing.name(), status);
+        assertEquals("participant1 should have been completed", Integer.valueOf(1), queue.poll());
+    }
+
+    /*
+     * verify that participants are called through the shared participant client and that its
+     * connections are released once the LRA has ended
+     */
+    @Test
+    public void testParticipantClient() {
+        long requests = ParticipantClient.getRequestCount();
+
+        participantCallbackOrder(false);
+
+        assertTrue("participants should be called through the shared client",
+                ParticipantClient.getRequestCount() >= requests + 2);
+        assertEquals("no participant requests should be outstanding", 0, ParticipantClient.getInFlightCount());
+    }
+
+    /*
+     * verify that a batch of LRAs can be started with one request
+     */
+    @Test
+    public void testStartBatch() {
+        int count = 10;
+        List<LRAStartRequest> requests = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            requests.add(new LRAStartRequest(testName.getMethodName() + i, 0L, null));
+        }
+
+        List<URI> batch = lraClient.startLRAs(requests);
+
+        assertEquals("every LRA of the batch should have been started", count, new HashSet<>(batch).size());
+
+        for (URI lraId : batch) {
+            assertEquals(LRAStatus.Active, lraClient.getStatus(lraId));
+            lraClient.closeLRA(lraId);
+        }
+
+        // a nested LRA of a batch must have a parent that this coordinator manages
+        try {
+            lraClient.startLRAs(List.of(new LRAStartRequest(testName.getMethodName(), 0L,
+                    URI.create("http://localhost:8081/lra-coordinator/unknown"))));
+            fail("a batch with an unknown parent should not start");
+        } catch (WebApplicationException e) {
+            assertEquals(Response.Status.PRECONDITION_FAILED.getStatusCode(), e.getResponse().getStatus());
+        }
+    }
+
+    @Test
+    public void testPagedListing() throws JsonProcessingException {
+        int count = 7;
+        List<URI> started = lraClient.startLRAs(Collections.nCopies(count,
+                new LRAStartRequest(testName.getMethodName(), 0L, null)));
+        List<String> listed = new ArrayList<>();
+        ObjectMapper objectMapper = new ObjectMapper();
+        URI page = UriBuilder.fromUri(coordinatorPath).queryParam("limit", 3).queryParam("sort", "id").build();
+
+        // follow the next links until the last page
+        while (page != null) {
+            try (Response response = client.target(page).request(MediaType.APPLICATION_JSON).get()) {
+                assertEquals(OK.getStatusCode(), response.getStatus());
+
+                JsonNode lras = objectMapper.readTree(response.readEntity(String.class));
+
+                assertTrue("a page should not be larger than the limit", lras.size() <= 3);
+                lras.forEach(lra -> listed.add(lra.get("lraId").asText()));
+
+                Link next = response.getLink("next");
+                page = next == null ? null : next.getUri();
+            }
+        }
+
+        List<String> sorted = new ArrayList<>(listed);
+        Collections.sort(sorted);
+
+        assertEquals("the pages should be in id order", sorted, listed);
+        assertEquals("an LRA should only be listed once", listed.size(), new HashSet<>(listed).size());
+
+        for (URI lraId : started) {
+            assertTrue("every LRA should be listed", listed.contains(lraId.toString()));
+        }
+
+        // the streamed forms of the listing
+        try (Response response = client.target(coordinatorPath).queryParam("Status", LRAStatus.Active.name())
+                .request("application/x-ndjson").get()) {
+            assertEquals(OK.getStatusCode(), response.getStatus());
+
+            String[] lines = response.readEntity(String.class).trim().split("\n");
+
+            assertTrue("every active LRA should be on its own line", lines.length >= count);
+
+            for (String line : lines) {
+                assertEquals(LRAStatus.Active.name(), objectMapper.readTree(line).get("status").asText());
+            }
+        }
+
+        // any other Accept header gets the listing as it did before streaming was introduced
+        try (Response response = client.target(coordinatorPath).request(MediaType.WILDCARD).get()) {
+            assertEquals(OK.getStatusCode(), response.getStatus());
+
+            String body = response.readEntity(String.class);
+
+            for (URI lraId : started) {
+                assertTrue("a wildcard listing should include every LRA", body.contains(lraId.toString()));
+            }
+        }
+
+        Set<URI> all = lraClient.getAllLRAs().stream().map(LRAData::getLraId).collect(Collectors.toSet());
+
+        assertTrue("the full listing should include every LRA", all.containsAll(started));
+
+        try (Response response = client.target(coordinatorPath).queryParam("cursor", "not-a-cursor")
+                .request(MediaType.APPLICATION_JSON).get()) {
+            assertEquals("an invalid cursor should be rejected",
+                    Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+        }
+
+        started.forEach(lraClient::closeLRA);
+    }
+
+    /*
+     * verify that the non-blocking client API drives an LRA without associating it with the calling thread
+     * and that it reports failures in the same way as the blocking API
+     */
+    @Test
+    public void testAsyncClientAPI() throws Exception {
+        URI lraId = lraClient.startLRAAsync(null, testName.getMethodName(), 0L, ChronoUnit.SECONDS)
+                .toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        assertNull("the async API should not associate the LRA with the calling thread", lraClient.getCurrent());
+        assertEquals(LRAStatus.Active, lraClient.getStatusAsync(lraId).toCompletableFuture().get(10, TimeUnit.SECONDS));
+
+        lraClient.closeLRAAsync(lraId).toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        try {
+            lraClient.getStatusAsync(lraId).toCompletableFuture().get(10, TimeUnit.SECONDS);
+            fail("the status of a closed LRA should not be available");
+        } catch (ExecutionException e) {
+            assertTrue("the failure should be a NotFoundException: " + e.getCause(),
+                    e.getCause() instanceof NotFoundException);
+        }
+    }
+
+    /*
+     * verify that the LRA client reuses one pooled client for a coordinator instead of creating
+     * a client, and a connection, for every request
+     */
+    @Test
+    public void testCoordinatorClientReuse() {
+        int count = 3;
+
+        lraClient.closeLRA(lraClient.startLRA(testName.getMethodName())); // make sure the client is created
+
+        long created = CoordinatorClientPool.getCreatedClientCount();
+
+        for (int i = 0; i < count; i++) {
+            URI lraId = lraClient.startLRA(testName.getMethodName());
+
+            assertEquals(LRAStatus.Active, lraClient.getStatus(lraId));
+            lraClient.closeLRA(lraId);
+        }
+
+        assertEquals("requests to the same coordinator should share a client",
+                created, CoordinatorClientPool.getCreatedClientCount());
+        assertTrue("the coordinator should have a pooled client", CoordinatorClientPool.getPooledClientCount() > 0);
+    }
+
+    /*
+     * verify that an asynchronous close request for an unknown LRA is rejected before it is accepted
+     */
+    @Test
+    public void testAsyncCloseUnknownLRA() {
+        try (Response r = client.target(coordinatorPath + "/xyz/close").request()
+                .header(LRAConstants.PREFER_HEADER, LRAConstants.RESPOND_ASYNC)
+                .put(Entity.text(""))) {
+            assertEquals("closing an unknown LRA should fail", Response.Status.NOT_FOUND.getStatusCode(), r.getStatus());
+        }
+    }
+
     /**
      * sanity check: test that a participant is notified when an LRA closes
      */
@@ -683,8 +975,182 @@ public class LRATest extends LRATestBase {
         // the LRA should still be finishing (ie there should be a log record)
         assertEquals(completions, completeCount.get());
 
+        int passes = LRARecoveryModule.getInstance().getPassCount();
+
         service.recover();
         assertTrue(testName + ": lra did not finish", isFinished(lraId));
+        assertTrue("the recovery pass should have been recorded", LRARecoveryModule.getInstance().getPassCount() > passes);
+    }
+
+    @Test
+    public void testIncrementalRecovery() {
+        LRARecoveryModule recoveryModule = LRARecoveryModule.getInstance();
+        Uid unknown = new Uid();
+        int fullScans = recoveryModule.getFullScanCount();
+
+        recoveryModule.markDirty(unknown);
+        assertTrue("the record should be read by the next pass", recoveryModule.isDirty(unknown));
+
+        service.recover(); // reads every record in the store
+
+        assertTrue("recover should read the whole store", recoveryModule.getFullScanCount() > fullScans);
+        assertFalse("a record that is not in the store should not stay marked", recoveryModule.isDirty(unknown));
+    }
+
+    @Test
+    public void testRecoveryPassBudget() {
+        LRARecoveryModule recoveryModule = LRARecoveryModule.getInstance();
+        int threads = recoveryModule.getRecoveryThreads();
+        long budget = recoveryModule.getPassBudget(TimeUnit.NANOSECONDS);
+        int interval = recoveryModule.getFullScanInterval();
+
+        try {
+            service.recover(); // start from a full scan and then only run incremental passes
+            recoveryModule.setFullScanInterval(Integer.MAX_VALUE);
+            recoveryModule.setRecoveryThreads(1);
+            // the budget runs out as soon as the first record has been read
+            recoveryModule.setPassBudget(1, TimeUnit.NANOSECONDS);
+
+            List<Uid> records = markUnknownRecords(recoveryModule, 5);
+
+            recoveryModule.periodicWorkSecondPass();
+
+            assertEquals("the pass should only have read one record", 1,
+                    recoveryModule.getLastPassRecordCount() + recoveryModule.getLastPassFailureCount());
+            assertTrue("the pass should have deferred the other records",
+                    recoveryModule.getLastPassDeferredCount() >= records.size() - 1);
+            assertTrue("the deferred records should be read by the next pass",
+                    records.stream().filter(recoveryModule::isDirty).count() >= records.size() - 1);
+        } finally {
+            recoveryModule.setPassBudget(0, TimeUnit.NANOSECONDS);
+            recoveryModule.periodicWorkSecondPass(); // read the deferred records
+            recoveryModule.setPassBudget(budget, TimeUnit.NANOSECONDS);
+            recoveryModule.setRecoveryThreads(threads);
+            recoveryModule.setFullScanInterval(interval);
+        }
+    }
+
+    @Test
+    public void testDeferredRecordsRecoveredFirst() {
+        LRARecoveryModule recoveryModule = LRARecoveryModule.getInstance();
+        int threads = recoveryModule.getRecoveryThreads();
+        long budget = recoveryModule.getPassBudget(TimeUnit.NANOSECONDS);
+        int interval = recoveryModule.getFullScanInterval();
+
+        try {
+            service.recover();
+            recoveryModule.setFullScanInterval(Integer.MAX_VALUE);
+            recoveryModule.setRecoveryThreads(1);
+            recoveryModule.setPassBudget(1, TimeUnit.NANOSECONDS);
+
+            markUnknownRecords(recoveryModule, 5);
+            recoveryModule.periodicWorkSecondPass(); // reads one record and defers the others
+
+            List<Uid> fresh = markUnknownRecords(recoveryModule, 5);
+
+            recoveryModule.periodicWorkSecondPass();
+
+            assertEquals("the pass should only have read one record", 1,
+                    recoveryModule.getLastPassRecordCount() + recoveryModule.getLastPassFailureCount());
+            assertTrue("a record deferred by the previous pass should have been read before the new ones",
+                    fresh.stream().allMatch(recoveryModule::isDirty));
+        } finally {
+            recoveryModule.setPassBudget(0, TimeUnit.NANOSECONDS);
+            recoveryModule.periodicWorkSecondPass();
+            recoveryModule.setPassBudget(budget, TimeUnit.NANOSECONDS);
+            recoveryModule.setRecoveryThreads(threads);
+            recoveryModule.setFullScanInterval(interval);
+        }
+    }
+
+    @Test
+    public void testRecoveryFailureIsConfined() throws ObjectStoreException {
+        LRARecoveryModule recoveryModule = LRARecoveryModule.getInstance();
+        int interval = recoveryModule.getFullScanInterval();
+        // a record that cannot be restored as an LRA
+        Uid broken = new Uid();
+
+        assertTrue(StoreManager.getRecoveryStore().write_committed(broken, LongRunningAction.getType(),
+                new OutputObjectState()));
+
+        try {
+            service.recover();
+            recoveryModule.setFullScanInterval(Integer.MAX_VALUE);
+
+            List<Uid> records = markUnknownRecords(recoveryModule, 5);
+
+            recoveryModule.markDirty(broken);
+            recoveryModule.periodicWorkSecondPass();
+
+            assertTrue("the broken record should have been counted as a failure",
+                    recoveryModule.getLastPassFailureCount() >= 1);
+            assertTrue("the broken record should be read again by the next pass", recoveryModule.isDirty(broken));
+            assertTrue("the other records should have been read",
+                    records.stream().noneMatch(recoveryModule::isDirty));
+        } finally {
+            recoveryModule.setFullScanInterval(interval);
+            StoreManager.getRecoveryStore().remove_committed(broken, LongRunningAction.getType());
+        }
+    }
+
+    // ask recovery to read records that are not in the store, reading them does not change anything
+    private static List<Uid> markUnknownRecords(LRARecoveryModule recoveryModule, int count) {
+        List<Uid> records = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            Uid uid = new Uid();
+
+            records.add(uid);
+            recoveryModule.markDirty(uid);
+        }
+
+        return records;
+    }
+
+    @Test
+    public void testFailedLRAIndex() {
+        LRARecoveryModule recoveryModule = LRARecoveryModule.getInstance();
+        int failed = recoveryModule.getFailedLRACount();
+        URI lraId = lraClient.startLRA(testName.getMethodName());
+
+        try (Response r = client.target(TestPortProvider.generateURL("/base/failing-participant/continue")).request()
+                .header(LRA_HTTP_CONTEXT_HEADER, lraId).get()) {
+            assertEquals("could not reach the failing participant", OK.getStatusCode(), r.getStatus());
+        }
+
+        try {
+            lraClient.cancelLRA(lraId);
+        } catch (WebApplicationException expected) {
+            // the participant could not compensate
+        }
+
+        assertEquals("the failed LRA should have been indexed when its record was moved",
+                failed + 1, recoveryModule.getFailedLRACount());
+
+        List<LRAData> page = service.getFailedPage("-startTime", null, 1);
+
+        assertEquals(1, page.size());
+        assertEquals("the most recently started failed LRA should come first", lraId, page.get(0).getLraId());
+        assertTrue("the next page should follow the failed LRA",
+                service.getFailedPage("-startTime", LRAService.getCursor(page.get(0)), 10).stream()
+                        .noneMatch(lra -> lraId.equals(lra.getLraId())));
+        assertEquals("the failure record should be read on request",
+                LRAStatus.FailedToCancel, service.getFailedLRA(lraId).getStatus());
+    }
+
+    @Test
+    public void testRecoverySkipsLiveLRAs() {
+        LRARecoveryModule recoveryModule = LRARecoveryModule.getInstance();
+        URI lraId = lraClient.startLRA(testName.getMethodName());
+        long avoided = recoveryModule.getAvoidedActivationCount();
+
+        service.recover();
+
+        assertTrue("recovery should not restore an LRA that is in flight",
+                recoveryModule.getAvoidedActivationCount() > avoided);
+        assertEquals(LRAStatus.Active, lraClient.getStatus(lraId));
+
+        lraClient.closeLRA(lraId);
     }
 
     /**
@@ -47,6 +47,7 @@ import jakarta.ws.rs.GET;
 import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
@@ -427,6 +428,55 @@ public class LRATestBase {
         }
     }
 
+    // participants that take a while to complete or compensate, each records its id on the queue when it has ended
+    @Path("/slow-participant")
+    public static class SlowParticipant {
+        static final long DELAY = 250; // milliseconds
+
+        @PUT
+        @Path("{id}/complete")
+        public Response complete(@PathParam("id") int id) {
+            return end(id, ParticipantStatus.Completed);
+        }
+
+        @PUT
+        @Path("{id}/compensate")
+        public Response compensate(@PathParam("id") int id) {
+            return end(id, ParticipantStatus.Compensated);
+        }
+
+        private Response end(int id, ParticipantStatus status) {
+            try {
+                Thread.sleep(DELAY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            queue.add(id);
+
+            return Response.ok(status.name()).build();
+        }
+    }
+
+    // a participant that cannot compensate, so an LRA that it joins fails when it is cancelled
+    @Path("/failing-participant")
+    public static class FailingParticipant {
+        @GET
+        @Path("/continue")
+        @LRA(value = LRA.Type.MANDATORY, end = false)
+        public Response continueInLRA(@HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI ignore) {
+            return Response.ok().build();
+        }
+
+        @PUT
+        @Path("compensate")
+        @Compensate
+        public Response compensate(@HeaderParam(LRA_HTTP_CONTEXT_HEADER) URI ignore) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(ParticipantStatus.FailedToCompensate.name()).build();
+        }
+    }
+
     // a resource that runs a method in an LRA and expects to receive an AfterLRA notification
     @Path("/lra-listener")
     public static class AfterLRAListener {
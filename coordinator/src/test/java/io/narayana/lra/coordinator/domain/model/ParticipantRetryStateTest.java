@@ -0,0 +1,29 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+public class ParticipantRetryStateTest {
+    @Test
+    public void testBackoff() {
+        long initial = 100;
+        long max = 10_000;
+
+        for (int attempts = 1; attempts <= 100; attempts++) {
+            long expected = Math.min(initial << Math.min(attempts - 1, 20), max);
+            long delay = ParticipantRetryState.backoff(attempts, initial, max);
+
+            assertTrue(String.format("attempt %d waited %d ms which is outside [%d, %d]", attempts, delay, expected / 2, expected),
+                    delay >= expected / 2 && delay <= expected);
+        }
+
+        // the delay must not overflow however many attempts there have been
+        assertTrue(ParticipantRetryState.backoff(Integer.MAX_VALUE, Long.MAX_VALUE / 3, Long.MAX_VALUE) > 0);
+    }
+}
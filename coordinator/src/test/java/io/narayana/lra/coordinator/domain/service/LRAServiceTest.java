@@ -0,0 +1,725 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.service;
+
+import com.arjuna.ats.arjuna.ObjectType;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import io.narayana.lra.LRAData;
+import io.narayana.lra.LRAParticipantEnlistment;
+import io.narayana.lra.ParticipantRetryData;
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.coordinator.internal.MonitoredExecutor;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.WebApplicationException;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LRAServiceTest {
+    private static final String LRA_BASE = "http://localhost:8080/lra-coordinator/";
+
+    private LRAService service;
+
+    @Before
+    public void before() {
+        service = new LRAService();
+    }
+
+    @Test
+    public void testLockLifecycle() {
+        URI lraId = URI.create(LRA_BASE + "0_ffff0a28054b_9133_5f855916_a7");
+
+        ReentrantLock lock = service.lockTransaction(lraId);
+        assertTrue("lock should be held by the calling thread", lock.isHeldByCurrentThread());
+        assertSame("the same lock should be returned for the same LRA", lock, service.tryLockTransaction(lraId));
+        lock.unlock();
+        lock.unlock();
+
+        assertEquals("the lock table should contain one entry", 1, service.getLockTableSize());
+        service.remove(lraId);
+        assertEquals("removing the LRA should release its lock entry", 0, service.getLockTableSize());
+    }
+
+    @Test
+    public void testLookupByUid() throws Exception {
+        LongRunningAction lra = new LongRunningAction(service, "http://localhost:8080/lra-coordinator", null, "client");
+        URI alias = URI.create("http://127.0.0.1:8080/lra-coordinator/" + lra.get_uid().fileStringForm());
+
+        service.addTransaction(lra);
+
+        assertSame(lra, service.getTransaction(lra.getId()));
+        assertSame("an LRA id using a different host should resolve via the uid", lra, service.getTransaction(alias));
+
+        service.remove(lra.getId());
+
+        try {
+            service.getTransaction(alias);
+            fail("the LRA should have been removed from the uid index");
+        } catch (NotFoundException expected) {
+        }
+    }
+
+    /*
+     * Resolve recovery ids through the reverse index, including ids of LRAs other than the most recent one,
+     * and check that removing an LRA removes its participants from the index.
+     */
+    @Test
+    public void testParticipantLookup() throws Exception {
+        List<LongRunningAction> lras = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            LongRunningAction lra = new LongRunningAction(service, "http://localhost:8080/lra-coordinator", null, "client");
+
+            service.addTransaction(lra);
+            service.updateRecoveryURI(lra.getId(), compensator(lra), recoveryId(lra, 1), false);
+            service.updateRecoveryURI(lra.getId(), compensator(lra) + "/2", recoveryId(lra, 2), false);
+            lras.add(lra);
+        }
+
+        for (LongRunningAction lra : lras) {
+            assertEquals(compensator(lra) + "/2", service.getParticipant(recoveryId(lra, 2)));
+        }
+
+        LongRunningAction lra = lras.get(0);
+
+        assertEquals(compensator(lra), service.getParticipant(recoveryId(lra, 1)));
+        service.remove(lra.getId());
+        assertNull("removing an LRA should remove its participants", service.getParticipant(recoveryId(lra, 1)));
+        assertEquals("the participants of other LRAs should still be found",
+                compensator(lras.get(1)), service.getParticipant(recoveryId(lras.get(1), 1)));
+    }
+
+    private static String compensator(LongRunningAction lra) {
+        return "http://localhost:8081/participant/" + lra.get_uid().fileStringForm();
+    }
+
+    private static String recoveryId(LongRunningAction lra, int participant) {
+        return "http://localhost:8080/lra-coordinator/recovery/" + lra.get_uid().fileStringForm() + "/" + participant;
+    }
+
+    /*
+     * Start LRAs from several threads at once. Every start request must produce a distinct LRA that the
+     * service knows about and that can be closed.
+     */
+    @Test
+    public void testConcurrentStart() throws Exception {
+        int threads = 4;
+        int count = 5;
+        Collection<LongRunningAction> started = new ConcurrentLinkedQueue<>();
+
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < count; i++) {
+                started.add(service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L));
+            }
+        });
+
+        assertEquals("every start request should produce a distinct LRA",
+                threads * count, started.stream().map(LongRunningAction::getId).distinct().count());
+
+        for (LongRunningAction lra : started) {
+            assertTrue("started LRA should be known to the service", service.hasTransaction(lra.getId()));
+            service.endLRA(lra.getId(), false, false);
+            assertFalse("closed LRA should have been removed", service.hasTransaction(lra.getId()));
+        }
+    }
+
+    @Test
+    public void testTimeLimitWithSaturatedCancellationExecutor() throws InterruptedException {
+        MonitoredExecutor executor = LongRunningAction.getCancellationExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        LongRunningAction lra;
+
+        try {
+            // occupy every worker and every queue slot of the cancellation executor
+            while (true) {
+                try {
+                    executor.execute(() -> {
+                        try {
+                            release.await(30, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                } catch (RejectedExecutionException full) {
+                    break;
+                }
+            }
+
+            long rejected = executor.getRejectedTaskCount();
+
+            lra = service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 10L);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+            while (executor.getRejectedTaskCount() == rejected && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertTrue("the cancellation should have been rejected by the saturated executor",
+                    executor.getRejectedTaskCount() > rejected);
+            assertEquals("the LRA should stay active until its cancellation is accepted",
+                    LRAStatus.Active, lra.getLRAStatus());
+        } finally {
+            release.countDown();
+        }
+
+        // the rejected cancellation is retried once the executor has room again
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (lra.getLRAStatus() != LRAStatus.Cancelled && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals("the LRA should have been cancelled by the retried cancellation",
+                LRAStatus.Cancelled, lra.getLRAStatus());
+    }
+
+    @Test
+    public void testTryLockContention() throws Exception {
+        URI lraId = URI.create(LRA_BASE + "0_ffff0a28054b_9133_5f855916_a8");
+        ReentrantLock lock = service.lockTransaction(lraId);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            assertNull("tryLock from another thread should fail while the lock is held",
+                    executor.submit(() -> service.tryLockTransaction(lraId)).get());
+            assertEquals(1, service.getFailedTryLockCount());
+
+            Future<ReentrantLock> waiter = executor.submit(() -> {
+                ReentrantLock l = service.lockTransaction(lraId);
+                l.unlock();
+                return l;
+            });
+
+            // wait for the other thread to queue on the lock before releasing it
+            while (!lock.hasQueuedThreads()) {
+                Thread.sleep(1);
+            }
+
+            lock.unlock();
+
+            assertNotNull(waiter.get(10, TimeUnit.SECONDS));
+            assertEquals("the blocked caller should have been counted", 1, service.getContendedLockCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * Lock and unlock distinct LRAs from several threads. Without a global monitor callers working on
+     * different LRAs never wait for each other, so no contention is recorded.
+     */
+    @Test
+    public void testConcurrentLockThroughput() throws Exception {
+        int threads = 4;
+        int iterations = 100;
+        int[] thread = {0};
+
+        runConcurrently(threads, () -> {
+            String prefix;
+
+            synchronized (thread) {
+                prefix = LRA_BASE + thread[0]++ + "_";
+            }
+
+            for (int i = 0; i < iterations; i++) {
+                URI lraId = URI.create(prefix + i);
+                ReentrantLock lock = service.lockTransaction(lraId);
+
+                try {
+                    assertNotNull(service.tryLockTransaction(lraId)); // reentrant
+                    lock.unlock();
+                } finally {
+                    lock.unlock();
+                }
+
+                service.remove(lraId);
+            }
+        });
+
+        assertEquals("callers locking different LRAs should never contend", 0, service.getContendedLockCount());
+        assertEquals("all locks should have been removed", 0, service.getLockTableSize());
+    }
+
+    /*
+     * Join participants to one LRA while the write for an earlier join is held up. The joins that arrive during
+     * the write must all be acknowledged and must share the writes that follow instead of writing once each.
+     */
+    @Test
+    public void testConcurrentEnlist() throws Exception {
+        int joins = 8;
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean holdWrite = new AtomicBoolean();
+        LongRunningAction lra = new LongRunningAction(service, "http://localhost:8080/lra-coordinator", null, "client") {
+            @Override
+            public boolean deactivate() {
+                if (holdWrite.compareAndSet(true, false)) {
+                    writing.countDown();
+
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                return super.deactivate();
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(joins + 1);
+        CountDownLatch joining = new CountDownLatch(joins);
+        List<Future<String>> recoveryIds = new ArrayList<>();
+
+        lra.begin(0L);
+        service.addTransaction(lra);
+
+        try {
+            long writes = lra.getEnlistmentWriteCount();
+
+            holdWrite.set(true);
+            recoveryIds.add(executor.submit(() -> enlist(lra, 0)));
+            assertTrue("the first join should have started writing the LRA", writing.await(10, TimeUnit.SECONDS));
+
+            for (int i = 1; i <= joins; i++) {
+                int participant = i;
+
+                recoveryIds.add(executor.submit(() -> {
+                    joining.countDown();
+                    return enlist(lra, participant);
+                }));
+            }
+
+            // let the joins queue behind the write but release it well before they would give up waiting for the LRA
+            assertTrue(joining.await(10, TimeUnit.SECONDS));
+            Thread.sleep(20);
+            release.countDown();
+
+            Set<String> acknowledged = new HashSet<>();
+
+            for (Future<String> recoveryId : recoveryIds) {
+                acknowledged.add(recoveryId.get(1, TimeUnit.MINUTES));
+            }
+
+            assertEquals("every join should have been acknowledged", joins + 1, acknowledged.size());
+            assertTrue(String.format("%d joins should have shared writes but there were %d writes",
+                            joins + 1, lra.getEnlistmentWriteCount() - writes),
+                    lra.getEnlistmentWriteCount() - writes < joins + 1);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            service.remove(lra.getId());
+            StoreManager.getRecoveryStore().remove_committed(lra.get_uid(), LongRunningAction.getType());
+        }
+    }
+
+    @Test
+    public void testFailedEnlistmentIsDiscarded() throws Exception {
+        AtomicBoolean failWrite = new AtomicBoolean();
+        LongRunningAction lra = new LongRunningAction(service, "http://localhost:8080/lra-coordinator", null, "client") {
+            @Override
+            public boolean deactivate() {
+                return !failWrite.get() && super.deactivate();
+            }
+        };
+
+        lra.begin(0L);
+        service.addTransaction(lra);
+
+        try {
+            failWrite.set(true);
+
+            try {
+                lra.enlistParticipant(lra.getId(), participantLink(0), LRA_BASE + "recovery", 0L, null, null);
+                fail("a join should fail if the LRA cannot be written");
+            } catch (ServiceUnavailableException expected) {
+                // the join was refused
+            }
+
+            failWrite.set(false);
+
+            long writes = lra.getEnlistmentWriteCount();
+
+            lra.enlistParticipant(lra.getId(), participantLink(0), LRA_BASE + "recovery", 0L, null, null);
+            assertEquals("the participant of the refused join should not have stayed enlisted",
+                    writes + 1, lra.getEnlistmentWriteCount());
+        } finally {
+            service.remove(lra.getId());
+            StoreManager.getRecoveryStore().remove_committed(lra.get_uid(), LongRunningAction.getType());
+        }
+    }
+
+    private static String enlist(LongRunningAction lra, int participant) throws UnsupportedEncodingException {
+        return lra.enlistParticipant(lra.getId(), "http://localhost:8081/participant" + participant,
+                LRA_BASE + "recovery", 0L, null, null).getRecoveryURI().toASCIIString();
+    }
+
+    /*
+     * Grow LRAs to different numbers of participants, saving the LRA after each join, and check that the
+     * saved participants are restored.
+     */
+    @Test
+    public void testParticipantStateSize() throws Exception {
+        for (int participants : new int[] {1, 10}) {
+            LongRunningAction lra = service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L);
+            String first = participantLink(0);
+
+            try {
+                URI recoveryId = lra.enlistParticipant(lra.getId(), first, LRA_BASE + "recovery",
+                        0L, null, null).getRecoveryURI();
+
+                for (int i = 1; i < participants; i++) {
+                    lra.enlistParticipant(lra.getId(), participantLink(i), LRA_BASE + "recovery",
+                            0L, "data" + i, null);
+                }
+
+                OutputObjectState state = new OutputObjectState();
+
+                assertTrue("the LRA state should save", lra.save_state(state, ObjectType.ANDPERSISTENT));
+
+                LongRunningAction restored = new LongRunningAction(service, lra.get_uid());
+
+                assertTrue("the LRA state should restore", restored.restore_state(
+                        new InputObjectState(lra.get_uid(), lra.type(), state.buffer()), ObjectType.ANDPERSISTENT));
+                assertEquals(lra.getId(), restored.getId());
+                // enlisting an existing participant returns the restored record
+                assertEquals("the participant should have been restored", recoveryId,
+                        restored.enlistParticipant(lra.getId(), first, LRA_BASE + "recovery", 0L, null, null)
+                                .getRecoveryURI());
+            } finally {
+                service.remove(lra.getId());
+                StoreManager.getRecoveryStore().remove_committed(lra.get_uid(), LongRunningAction.getType());
+            }
+        }
+    }
+
+    /*
+     * Participants are found through per LRA indexes: enlisting again returns the existing record and
+     * leaving removes it from the indexes, without rebuilding them for every lookup.
+     */
+    @Test
+    public void testParticipantIndex() throws Exception {
+        int participants = 100;
+        LongRunningAction lra = service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L);
+        List<URI> recoveryIds = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < participants; i++) {
+                recoveryIds.add(lra.enlistParticipant(lra.getId(), participantLink(i), LRA_BASE + "recovery",
+                        0L, null, null).getRecoveryURI());
+            }
+
+            long writes = lra.getEnlistmentWriteCount();
+
+            for (int i = 0; i < participants; i++) {
+                assertEquals("enlisting again should return the existing participant", recoveryIds.get(i),
+                        lra.enlistParticipant(lra.getId(), participantLink(i), LRA_BASE + "recovery",
+                                0L, null, null).getRecoveryURI());
+            }
+
+            assertEquals("enlisting existing participants should not write the LRA",
+                    writes, lra.getEnlistmentWriteCount());
+
+            assertTrue("the participant should be able to leave", lra.forgetParticipant(participantLink(0)));
+            assertFalse("the participant should have left", lra.forgetParticipant(participantLink(0)));
+            assertNotEquals("a participant that left should be enlisted as a new one", recoveryIds.get(0),
+                    lra.enlistParticipant(lra.getId(), participantLink(0), LRA_BASE + "recovery",
+                            0L, null, null).getRecoveryURI());
+
+            assertTrue("the indexes should not be rebuilt for each lookup",
+                    lra.getParticipantIndexRebuildCount() <= 2);
+        } finally {
+            service.remove(lra.getId());
+            StoreManager.getRecoveryStore().remove_committed(lra.get_uid(), LongRunningAction.getType());
+        }
+    }
+
+    /*
+     * Enlist a batch of participants in one step and check that the batch is made durable with one write
+     * and that enlisting the same batch again returns the existing participants.
+     */
+    @Test
+    public void testJoinLRAs() {
+        int participants = 20;
+        LongRunningAction lra = service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L);
+        List<LRAParticipantEnlistment> enlistments = new ArrayList<>();
+
+        for (int i = 0; i < participants; i++) {
+            enlistments.add(new LRAParticipantEnlistment(participantLink(i), "data" + i));
+        }
+
+        try {
+            long writes = lra.getEnlistmentWriteCount();
+
+            assertEquals(200, service.joinLRAs(lra.getId(), 0L, enlistments, LRA_BASE + "recovery", null));
+            assertEquals("the batch should be written once", writes + 1, lra.getEnlistmentWriteCount());
+            assertEquals("every participant should have its own recovery URL", participants,
+                    enlistments.stream().map(LRAParticipantEnlistment::getRecoveryUrl).distinct().count());
+
+            List<String> recoveryUrls = new ArrayList<>();
+            List<LRAParticipantEnlistment> again = new ArrayList<>();
+
+            for (int i = 0; i < participants; i++) {
+                recoveryUrls.add(enlistments.get(i).getRecoveryUrl());
+                again.add(new LRAParticipantEnlistment(participantLink(i), null));
+            }
+
+            assertEquals(200, service.joinLRAs(lra.getId(), 0L, again, LRA_BASE + "recovery", null));
+
+            for (int i = 0; i < participants; i++) {
+                assertEquals("enlisting again should return the existing participant",
+                        recoveryUrls.get(i), again.get(i).getRecoveryUrl());
+                assertEquals("the previous participant data should be returned",
+                        "data" + i, again.get(i).getParticipantData());
+            }
+
+            assertEquals("a participant without a link should be rejected", 400, service.joinLRAs(lra.getId(), 0L,
+                    List.of(new LRAParticipantEnlistment(null, null)), LRA_BASE + "recovery", null));
+        } finally {
+            service.remove(lra.getId());
+            StoreManager.getRecoveryStore().remove_committed(lra.get_uid(), LongRunningAction.getType());
+        }
+    }
+
+    @Test
+    public void testJoinLRAsFailsPartWay() {
+        LongRunningAction lra = service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L);
+        List<LRAParticipantEnlistment> enlistments = new ArrayList<>();
+
+        enlistments.add(new LRAParticipantEnlistment(participantLink(0), null));
+        enlistments.add(new LRAParticipantEnlistment(participantLink(1), null));
+        // a link without a compensate or an after callback cannot be enlisted
+        enlistments.add(new LRAParticipantEnlistment("<http://localhost:8081/participant2/status>; rel=\"status\"", null));
+        enlistments.add(new LRAParticipantEnlistment(participantLink(3), null));
+
+        try {
+            long writes = lra.getEnlistmentWriteCount();
+
+            try {
+                service.joinLRAs(lra.getId(), 0L, enlistments, LRA_BASE + "recovery", null);
+                fail("a batch with an invalid participant should be rejected");
+            } catch (WebApplicationException e) {
+                assertEquals(400, e.getResponse().getStatus());
+            }
+
+            assertEquals("a rejected batch should not be written", writes, lra.getEnlistmentWriteCount());
+            assertNull("a rejected batch should not return recovery URLs", enlistments.get(0).getRecoveryUrl());
+
+            List<LRAParticipantEnlistment> valid = List.of(
+                    new LRAParticipantEnlistment(participantLink(0), null),
+                    new LRAParticipantEnlistment(participantLink(1), null));
+
+            // the participants that preceded the invalid one must have been discarded so they are new again
+            assertEquals(200, service.joinLRAs(lra.getId(), 0L, valid, LRA_BASE + "recovery", null));
+            assertEquals("the discarded participants should be enlisted afresh", writes + 1,
+                    lra.getEnlistmentWriteCount());
+        } finally {
+            service.remove(lra.getId());
+            StoreManager.getRecoveryStore().remove_committed(lra.get_uid(), LongRunningAction.getType());
+        }
+    }
+
+    @Test
+    public void testGetPage() {
+        List<LongRunningAction> started = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                started.add(service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L));
+            }
+
+            // walk the LRAs newest first, three at a time
+            List<LRAData> listed = new ArrayList<>();
+            String cursor = null;
+            List<LRAData> page;
+
+            do {
+                page = service.getPage(null, "-startTime", cursor, 3);
+                assertTrue("a page should not be larger than the limit", page.size() <= 3);
+                listed.addAll(page);
+                cursor = page.isEmpty() ? null : LRAService.getCursor(page.get(page.size() - 1));
+            } while (page.size() == 3);
+
+            assertEquals("every LRA should be listed once", started.size(), listed.size());
+
+            for (int i = 1; i < listed.size(); i++) {
+                assertTrue("the LRAs should be newest first",
+                        listed.get(i - 1).getStartTime() >= listed.get(i).getStartTime());
+            }
+
+            assertEquals("filtering by status should exclude the active LRAs",
+                    0, service.getPage(LRAStatus.Closed, "id", null, 3).size());
+
+            try {
+                service.getPage(null, "clientId", null, 3);
+                fail("an unknown sort order should be rejected");
+            } catch (IllegalArgumentException expected) {
+            }
+        } finally {
+            started.forEach(lra -> service.endLRA(lra.getId(), false, false));
+        }
+    }
+
+    @Test
+    public void testStatusIndex() {
+        LongRunningAction parent = service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L);
+        LongRunningAction child = service.startLRA("http://localhost:8080/lra-coordinator", parent.getId(), "client", 0L);
+
+        try {
+            assertEquals(2, service.getCount(LRAStatus.Active));
+            assertEquals(2, service.getAll(LRAStatus.Active).size());
+
+            // a closed nested LRA is kept until its parent finishes so it should move to the Closed index
+            service.endLRA(child.getId(), false, false);
+
+            assertEquals(LRAStatus.Closed, child.getLRAStatus());
+            assertEquals(1, service.getCount(LRAStatus.Active));
+            assertEquals(1, service.getCount(LRAStatus.Closed));
+            assertEquals(child.getId(), service.getAll(LRAStatus.Closed).get(0).getLraId());
+            assertEquals(parent.getId(), service.getAll(LRAStatus.Active).get(0).getLraId());
+            assertEquals(2, service.getCount(null));
+        } finally {
+            service.endLRA(parent.getId(), false, false);
+        }
+
+        assertEquals("finished LRAs should be removed from the index", 0, service.getCount(null));
+    }
+
+    /*
+     * Read the data of an LRA from several threads while its time limit is being renewed. The readers
+     * should share one snapshot until the LRA changes and never see a finish time that has been replaced.
+     */
+    @Test
+    public void testLRADataSnapshot() throws Exception {
+        LongRunningAction lra = service.startLRA("http://localhost:8080/lra-coordinator", null, "client", 0L);
+
+        try {
+            assertSame("the data should be reused while the LRA is unchanged",
+                    service.getLRA(lra.getId()), service.getLRA(lra.getId()));
+
+            int renewals = 200;
+            AtomicInteger renewed = new AtomicInteger();
+            AtomicInteger roles = new AtomicInteger();
+            int threads = 4;
+
+            runConcurrently(threads, () -> {
+                if (roles.getAndIncrement() == 0) { // one writer and the rest are readers
+                    for (int i = 1; i <= renewals; i++) {
+                        service.renewTimeLimit(lra.getId(), TimeUnit.HOURS.toMillis(1) + i);
+                        renewed.set(i);
+                    }
+                } else {
+                    while (renewed.get() < renewals) {
+                        int before = renewed.get();
+                        LRAData data = service.getLRA(lra.getId());
+
+                        assertEquals(lra.getId(), data.getLraId());
+                        assertTrue("a renewed LRA should have a finish time", before == 0 || data.getFinishTime() != 0);
+                    }
+                }
+            });
+
+            LRAData data = service.getLRA(lra.getId());
+
+            service.renewTimeLimit(lra.getId(), TimeUnit.HOURS.toMillis(2));
+
+            assertTrue("the data should reflect the last renewal", service.getLRA(lra.getId()).getFinishTime()
+                    > data.getFinishTime() + TimeUnit.MINUTES.toMillis(30));
+            assertEquals(LRAStatus.Active, service.getLRA(lra.getId()).getStatus());
+
+            service.endLRA(lra.getId(), false, false);
+
+            assertEquals("the data should be rebuilt when the status changes", LRAStatus.Closed, lra.getLRAData().getStatus());
+        } finally {
+            service.remove(lra.getId());
+        }
+    }
+
+    @Test
+    public void testRecoveryBacklog() {
+        URI lra1 = URI.create(LRA_BASE + "0_ffff0a28054b_9133_5f855916_b1");
+        URI lra2 = URI.create(LRA_BASE + "0_ffff0a28054b_9133_5f855916_b2");
+        long now = System.currentTimeMillis();
+
+        service.getRetryState(lra1, "participant1").failed(now);
+        service.getRetryState(lra1, "participant1").failed(now);
+        service.getRetryState(lra2, "participant2").failed(now);
+
+        List<ParticipantRetryData> backlog = service.getRecoveryBacklog();
+
+        assertEquals(2, backlog.size());
+        assertTrue("the backlog should be ordered by the next attempt",
+                backlog.get(0).getNextAttempt() <= backlog.get(1).getNextAttempt());
+        assertEquals(2, service.findRetryState(lra1, "participant1").getData().getAttempts());
+
+        service.clearRetryState(lra1, "participant1");
+        assertNull("a finished participant should have no schedule", service.findRetryState(lra1, "participant1"));
+
+        service.remove(lra2);
+        assertTrue("removing an LRA should drop its schedules", service.getRecoveryBacklog().isEmpty());
+    }
+
+    // participants are identified by the compensate link when they enlist again
+    private static String participantLink(int i) {
+        return String.format("<http://localhost:8081/participant%d/compensate>; rel=\"compensate\"", i);
+    }
+
+    // run the task on the given number of threads, all starting at the same time
+    private static void runConcurrently(int threads, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+
+                    return null;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<?> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
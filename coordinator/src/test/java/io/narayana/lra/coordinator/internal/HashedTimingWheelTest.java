@@ -0,0 +1,143 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.internal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HashedTimingWheelTest {
+    private HashedTimingWheel timer;
+
+    @Before
+    public void before() {
+        // a small wheel so that the tests exercise timeouts that need several rotations
+        timer = new HashedTimingWheel("test-timer", 5, TimeUnit.MILLISECONDS, 8, Runnable::run);
+    }
+
+    @After
+    public void after() {
+        timer.stop();
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        int count = 100;
+        CountDownLatch fired = new CountDownLatch(count);
+
+        for (int i = 0; i < count; i++) {
+            timer.schedule(fired::countDown, i * 2, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue("all timeouts should have fired", fired.await(10, TimeUnit.SECONDS));
+        assertEquals(count, timer.getExpiredTimeouts());
+        assertEquals(0, timer.getPendingTimeouts());
+        assertTrue("timeouts should not fire long after their deadline",
+                timer.getMaxFiringLag(TimeUnit.MILLISECONDS) < TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Test
+    public void testNotEarly() throws InterruptedException {
+        long delay = 200;
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        timer.schedule(fired::countDown, delay, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(10, TimeUnit.SECONDS));
+        assertTrue("the timeout fired before its deadline",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= delay);
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        AtomicInteger fired = new AtomicInteger();
+        CountDownLatch other = new CountDownLatch(1);
+
+        HashedTimingWheel.Timeout timeout = timer.schedule(fired::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, timer.getPendingTimeouts());
+        assertTrue(timeout.cancel());
+        assertFalse("a timeout can only be cancelled once", timeout.cancel());
+        assertTrue(timeout.isCancelled());
+
+        timer.schedule(other::countDown, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(other.await(10, TimeUnit.SECONDS));
+        assertEquals("a cancelled timeout must not fire", 0, fired.get());
+        assertEquals(0, timer.getPendingTimeouts());
+        assertFalse(timeout.isExpired());
+    }
+
+    /*
+     * Expire a burst of timeouts whose work is slow (like cancelling LRAs with unresponsive participants)
+     * and check that an unrelated timeout still fires on time because the timer only hands the slow work
+     * over to a bounded pool of workers.
+     */
+    @Test
+    public void testSlowTasksDoNotDelayExpiry() throws InterruptedException {
+        MonitoredExecutor workers = new MonitoredExecutor("test-workers", 2, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch unrelated = new CountDownLatch(1);
+        long[] firedAt = new long[1];
+        int slowTasks = 20;
+
+        try {
+            for (int i = 0; i < slowTasks; i++) {
+                timer.schedule(() -> workers.execute(() -> {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }), 10, TimeUnit.MILLISECONDS);
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+
+            timer.schedule(() -> {
+                firedAt[0] = System.nanoTime();
+                unrelated.countDown();
+            }, 200, TimeUnit.MILLISECONDS);
+
+            assertTrue("the unrelated timeout did not fire", unrelated.await(5, TimeUnit.SECONDS));
+            assertTrue("the unrelated timeout was delayed by the slow tasks",
+                    TimeUnit.NANOSECONDS.toMillis(firedAt[0] - deadline) < 1000);
+            assertEquals("the slow tasks should be waiting for a worker", slowTasks - 2, workers.getQueueDepth());
+
+            release.countDown();
+        } finally {
+            workers.shutdown();
+        }
+
+        assertTrue(workers.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(slowTasks, workers.getFinishedTaskCount());
+        assertEquals(0, workers.getRejectedTaskCount());
+        assertTrue("queued tasks should report how long they waited", workers.getMaxQueueLag(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    public void testStop() {
+        timer.schedule(() -> { }, 1, TimeUnit.HOURS);
+        timer.stop();
+
+        try {
+            timer.schedule(() -> { }, 1, TimeUnit.MILLISECONDS);
+            fail("a stopped timer should reject new timeouts");
+        } catch (RejectedExecutionException expected) {
+        }
+    }
+}
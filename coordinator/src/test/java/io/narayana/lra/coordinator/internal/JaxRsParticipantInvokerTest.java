@@ -0,0 +1,92 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.internal;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JaxRsParticipantInvokerTest {
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CountDownLatch release;
+    private JaxRsParticipantInvoker invoker;
+    private URI participant;
+
+    @Before
+    public void before() throws IOException {
+        // a participant that holds each request until it is released
+        release = new CountDownLatch(1);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/participant", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            byte[] reply = exchange.getRequestMethod().getBytes(StandardCharsets.UTF_8);
+
+            exchange.sendResponseHeaders(200, reply.length);
+
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(reply);
+            }
+        });
+        server.start();
+
+        participant = URI.create("http://localhost:" + server.getAddress().getPort() + "/participant");
+        invoker = new JaxRsParticipantInvoker();
+    }
+
+    @After
+    public void after() {
+        release.countDown();
+        invoker.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testConnectionCounts() throws Exception {
+        assertEquals("no connection should be open yet", 0, invoker.getLeasedConnectionCount());
+        assertTrue("the pool should have a limit", invoker.getMaxConnectionCount() > 0);
+
+        CompletableFuture<ParticipantResponse> response = invoker.invoke("PUT", participant, Map.of(), "data");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (invoker.getLeasedConnectionCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals("the request in progress should hold a connection", 1, invoker.getLeasedConnectionCount());
+
+        release.countDown();
+
+        assertEquals("PUT", response.get(10, TimeUnit.SECONDS).getEntity());
+        assertEquals("the connection should have been returned to the pool", 0, invoker.getLeasedConnectionCount());
+        assertEquals("the connection should be kept for the next request", 1, invoker.getAvailableConnectionCount());
+        assertEquals(0, invoker.getPendingConnectionCount());
+    }
+}
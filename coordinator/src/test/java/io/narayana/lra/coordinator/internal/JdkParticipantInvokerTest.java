@@ -0,0 +1,168 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.internal;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JdkParticipantInvokerTest {
+    private static final long PARTICIPANT_DELAY = 200; // milliseconds
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private JdkParticipantInvoker invoker;
+    private URI participant;
+
+    @Before
+    public void before() throws IOException {
+        // a participant that takes a while to respond and echoes the request back
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/participant", exchange -> {
+            try {
+                Thread.sleep(PARTICIPANT_DELAY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            byte[] reply = (exchange.getRequestMethod() + ":" + body).getBytes(StandardCharsets.UTF_8);
+            String context = exchange.getRequestHeaders().getFirst("Long-Running-Action");
+
+            if (context != null) {
+                exchange.getResponseHeaders().add("Long-Running-Action", context);
+            }
+
+            exchange.sendResponseHeaders(200, reply.length);
+
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(reply);
+            }
+        });
+        // reports the protocol of the request and whether the client asked to upgrade the connection
+        server.createContext("/protocol", exchange -> {
+            String upgrade = exchange.getRequestHeaders().getFirst("Upgrade");
+            byte[] reply = (exchange.getProtocol() + (upgrade == null ? "" : " upgrade " + upgrade))
+                    .getBytes(StandardCharsets.UTF_8);
+
+            exchange.sendResponseHeaders(200, reply.length);
+
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(reply);
+            }
+        });
+        server.start();
+
+        participant = URI.create("http://localhost:" + server.getAddress().getPort() + "/participant");
+        invoker = new JdkParticipantInvoker();
+    }
+
+    @After
+    public void after() {
+        invoker.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testRequest() throws Exception {
+        ParticipantResponse response = invoker.invoke("PUT", participant,
+                Map.of("Long-Running-Action", "http://localhost/lra-coordinator/0_0"), "data")
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("PUT:data", response.getEntity());
+        assertEquals("the header should be sent and returned", "http://localhost/lra-coordinator/0_0",
+                response.getHeaderString("long-running-action"));
+
+        response = invoker.invoke("DELETE", participant, Map.of(), null).get(10, TimeUnit.SECONDS);
+
+        assertEquals("DELETE:", response.getEntity());
+    }
+
+    @Test
+    public void testPlainHttpStaysOnHttp11() throws Exception {
+        URI target = URI.create("http://localhost:" + server.getAddress().getPort() + "/protocol");
+        ParticipantResponse response = invoker.invoke("GET", target, Map.of(), null).get(10, TimeUnit.SECONDS);
+
+        assertEquals("a plain http request should not ask to upgrade to h2c", "HTTP/1.1", response.getEntity());
+    }
+
+    @Test
+    public void testUnreachableParticipant() throws InterruptedException {
+        server.stop(0);
+
+        CompletableFuture<ParticipantResponse> response = invoker.invoke("GET", participant, Map.of(), null);
+
+        try {
+            response.get(10, TimeUnit.SECONDS);
+        } catch (Exception expected) {
+            // the failure is reported through the future
+        }
+
+        assertTrue("the request should have failed", response.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testClose() throws InterruptedException {
+        invoker.close();
+
+        CompletableFuture<ParticipantResponse> response = invoker.invoke("GET", participant, Map.of(), null);
+
+        try {
+            response.get(10, TimeUnit.SECONDS);
+        } catch (Exception expected) {
+            // the failure is reported through the future
+        }
+
+        assertTrue("a closed invoker should reject requests", response.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        int count = 50;
+        List<CompletableFuture<ParticipantResponse>> responses = new ArrayList<>(count);
+        long start = System.nanoTime();
+
+        // the requests are in progress at the same time so the caller does not hold a thread per participant
+        for (int i = 0; i < count; i++) {
+            responses.add(invoker.invoke("PUT", participant, Map.of(), Integer.toString(i)));
+        }
+
+        for (int i = 0; i < count; i++) {
+            ParticipantResponse response = responses.get(i).get(30, TimeUnit.SECONDS);
+
+            assertEquals(200, response.getStatus());
+            assertEquals("PUT:" + i, response.getEntity());
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(String.format("%d requests took %d ms which is as slow as sending them one at a time",
+                        count, elapsed),
+                elapsed >= count * PARTICIPANT_DELAY / 2);
+    }
+}
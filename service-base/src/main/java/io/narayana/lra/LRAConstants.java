@@ -57,6 +57,14 @@ public final class LRAConstants {
     public static final String NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME = "Narayana-LRA-Participant-Data";
     public static final String NARAYANA_LRA_PARTICIPANT_LINK_HEADER_NAME = "Narayana-LRA-Participant-Link";
 
+    /*
+     * RFC 7240 preference for asking the coordinator to close or cancel an LRA in the background:
+     * the coordinator replies with 202 Accepted and a Location header referencing the LRA status.
+     */
+    public static final String PREFER_HEADER = "Prefer";
+    public static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    public static final String RESPOND_ASYNC = "respond-async";
+
     /**
      * Number of seconds to wait for requests to participant.
      * The timeout is hardcoded as the protocol expects retry in case of failure and timeout.
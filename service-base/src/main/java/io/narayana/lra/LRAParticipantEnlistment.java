@@ -0,0 +1,53 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra;
+
+/**
+ * DTO object which describes one of the participants of a bulk join request.
+ * It's used by {@code io.narayana.lra.coordinator.api.Coordinator} for reading the JSON body of
+ * a request to enlist several participants at once and, with the recovery URL and any previously
+ * registered participant data filled in, for the JSON response.
+ */
+public class LRAParticipantEnlistment {
+    private String link;
+    private String participantData;
+    private String recoveryUrl;
+
+    public LRAParticipantEnlistment() {}
+
+    /**
+     * @param link the participant end points in link header format
+     * @param participantData data to associate with the participant or null
+     */
+    public LRAParticipantEnlistment(String link, String participantData) {
+        this.link = link;
+        this.participantData = participantData;
+    }
+
+    public String getLink() {
+        return this.link;
+    }
+
+    public void setLink(String link) {
+        this.link = link;
+    }
+
+    public String getParticipantData() {
+        return this.participantData;
+    }
+
+    public void setParticipantData(String participantData) {
+        this.participantData = participantData;
+    }
+
+    public String getRecoveryUrl() {
+        return this.recoveryUrl;
+    }
+
+    public void setRecoveryUrl(String recoveryUrl) {
+        this.recoveryUrl = recoveryUrl;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra;
+
+import java.net.URI;
+
+/**
+ * DTO object which describes one of the LRAs of a batch start request.
+ * It's used by {@code io.narayana.lra.coordinator.api.Coordinator}
+ * for reading the JSON body of a request to start several LRAs at once.
+ */
+public class LRAStartRequest {
+    private String clientId;
+    private long timeLimit;
+    private URI parentLRA;
+
+    public LRAStartRequest() {}
+
+    /**
+     * @param clientId the client id of the new LRA
+     * @param timeLimit the maximum time in milliseconds that the LRA will exist for, 0 means no limit
+     * @param parentLRA the enclosing LRA if the new LRA is nested, otherwise null
+     */
+    public LRAStartRequest(String clientId, long timeLimit, URI parentLRA) {
+        this.clientId = clientId;
+        this.timeLimit = timeLimit;
+        this.parentLRA = parentLRA;
+    }
+
+    public String getClientId() {
+        return this.clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public long getTimeLimit() {
+        return this.timeLimit;
+    }
+
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    public URI getParentLRA() {
+        return this.parentLRA;
+    }
+
+    public void setParentLRA(URI parentLRA) {
+        this.parentLRA = parentLRA;
+    }
+}
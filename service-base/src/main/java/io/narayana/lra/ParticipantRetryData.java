@@ -0,0 +1,78 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra;
+
+import java.net.URI;
+
+/**
+ * DTO object which describes a participant that recovery has failed to finish and will retry.
+ * It's used by {@code io.narayana.lra.coordinator.api.RecoveryCoordinator}
+ * for JSON response creation when the recovery backlog is asked for.
+ */
+public class ParticipantRetryData {
+    private URI lraId;
+    private String participant;
+    private int attempts;
+    private long lastAttempt;
+    private long nextAttempt;
+
+    public ParticipantRetryData() {}
+
+    /**
+     * @param lraId the LRA that the participant is enlisted with
+     * @param participant the recovery URL of the participant
+     * @param attempts the number of attempts that did not finish the participant
+     * @param lastAttempt the time of the most recent attempt in milliseconds since the epoch
+     * @param nextAttempt the time when recovery will try again in milliseconds since the epoch
+     */
+    public ParticipantRetryData(URI lraId, String participant, int attempts, long lastAttempt, long nextAttempt) {
+        this.lraId = lraId;
+        this.participant = participant;
+        this.attempts = attempts;
+        this.lastAttempt = lastAttempt;
+        this.nextAttempt = nextAttempt;
+    }
+
+    public URI getLraId() {
+        return this.lraId;
+    }
+
+    public void setLraId(URI lraId) {
+        this.lraId = lraId;
+    }
+
+    public String getParticipant() {
+        return this.participant;
+    }
+
+    public void setParticipant(String participant) {
+        this.participant = participant;
+    }
+
+    public int getAttempts() {
+        return this.attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public long getLastAttempt() {
+        return this.lastAttempt;
+    }
+
+    public void setLastAttempt(long lastAttempt) {
+        this.lastAttempt = lastAttempt;
+    }
+
+    public long getNextAttempt() {
+        return this.nextAttempt;
+    }
+
+    public void setNextAttempt(long nextAttempt) {
+        this.nextAttempt = nextAttempt;
+    }
+}